@@ -0,0 +1,86 @@
+package benchmark;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import encoder_decoder.AdaptiveHuffmanEncoderDecoder;
+import tree_utils.eTreeEngine;
+import tree_utils.eUpdateRule;
+
+/**
+ * In-memory compression and decompression of Zipfian symbols of {@link WorkloadGenerator}, with a growing number of
+ * distinct symbols, with both tree engines. Run with {@code -prof gc} to see what the codec allocates as the tree grows.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 3, time = 1)
+@Fork(1)
+public class AlphabetScalingBenchmark
+{
+	static final int sf_AlphabetInputBytes = 1 << 23;
+	static final int sf_AlphabetSymbolWidth = 4;
+	static final long sf_Seed = 1;
+
+	@Param({"16", "256", "4096", "65536", "1048576"})
+	public int alphabetSize;
+
+	@Param({"node", "array"})
+	public eTreeEngine engine;
+
+	private byte input[];
+	private AdaptiveHuffmanEncoderDecoder ende;
+	private ByteBuffer compressOutput;
+	private ByteBuffer compressed;
+	private ByteBuffer decompressed;
+
+	@Setup(Level.Trial)
+	public void compressInput()
+	{
+		input = new WorkloadGenerator(eWorkload.zipfian, sf_AlphabetSymbolWidth, alphabetSize, sf_Seed).generate(sf_AlphabetInputBytes);
+
+		ende = new AdaptiveHuffmanEncoderDecoder(sf_AlphabetSymbolWidth, engine);
+		// the node engine implements only the legacy rule
+		ende.setUpdateRule(engine == eTreeEngine.node ? eUpdateRule.legacy : eUpdateRule.block);
+
+		compressOutput = ByteBuffer.allocate(2 * sf_AlphabetInputBytes);
+		compressed = ByteBuffer.allocate(2 * sf_AlphabetInputBytes);
+		decompressed = ByteBuffer.allocate(sf_AlphabetInputBytes);
+		ende.compress(ByteBuffer.wrap(input), compressed);
+		compressed.flip();
+	}
+
+	@Benchmark
+	public int compress(ProcessedBytes processed)
+	{
+		compressOutput.clear();
+		int length = ende.compress(ByteBuffer.wrap(input), compressOutput);
+
+		processed.add(input.length);
+		return length;
+	}
+
+	@Benchmark
+	public int decompress(ProcessedBytes processed)
+	{
+		decompressed.clear();
+		int length = ende.decompress(compressed.duplicate(), decompressed);
+
+		processed.add(input.length);
+		return length;
+	}
+}
@@ -0,0 +1,64 @@
+package benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * The output directory of the benchmarks that code files, and muting the progress lines the codec prints meanwhile.
+ */
+class BenchmarkFiles
+{
+	static final String sf_InputDirName = "ExampleInputs";
+
+	private static PrintStream s_Console;
+
+	/**
+	 * @return a new temporary directory for the files a benchmark writes
+	 */
+	static Path createOutputDir() throws IOException
+	{
+		return Files.createTempDirectory("benchmark");
+	}
+
+	/**
+	 * stop printing to the console until {@link #unmuteConsole}, so the progress lines of the codec do not flood the results
+	 */
+	static void muteConsole()
+	{
+		if (s_Console == null)
+		{
+			s_Console = System.out;
+			System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+		}
+	}
+
+	static void unmuteConsole()
+	{
+		if (s_Console != null)
+		{
+			System.setOut(s_Console);
+			s_Console = null;
+		}
+	}
+
+	static void deleteDir(File file)
+	{
+		File[] contents = file.listFiles();
+		if (contents != null)
+		{
+			for (File f : contents)
+			{
+				if (!Files.isSymbolicLink(f.toPath()))
+				{
+					deleteDir(f);
+				}
+			}
+		}
+
+		file.delete();
+	}
+}
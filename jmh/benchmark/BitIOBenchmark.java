@@ -0,0 +1,155 @@
+package benchmark;
+
+import java.nio.ByteBuffer;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import BinaryIO.BitReader;
+import BinaryIO.BitWriter;
+import BinaryIO.BufferByteSource;
+import BinaryIO.ByteSink;
+
+/**
+ * Single bits, short codes of random lengths and whole bytes through {@link BitWriter} and {@link BitReader}.
+ * The codes are counted in the bytes they take.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BitIOBenchmark
+{
+	static final int sf_BitIOBytes = 1 << 22;
+
+	private int lengths[];
+	private long codeBytes;
+	private byte bytes[];
+	private byte readBack[];
+	private ByteBuffer output;
+	private BitWriter out;
+	private BufferByteSource source;
+	private BitReader in;
+
+	@Setup(Level.Trial)
+	public void generateInput()
+	{
+		Random random = new Random(1);
+		lengths = new int[sf_BitIOBytes / 2];
+		long codeBits = 0;
+		for (int i = 0; i < lengths.length; i++)
+		{
+			lengths[i] = 1 + random.nextInt(15);
+			codeBits += lengths[i];
+		}
+		codeBytes = codeBits / Byte.SIZE;
+
+		bytes = new byte[sf_BitIOBytes];
+		random.nextBytes(bytes);
+		readBack = new byte[sf_BitIOBytes];
+		output = ByteBuffer.allocate(sf_BitIOBytes);
+		out = new BitWriter(ByteSink.into(output));
+		source = new BufferByteSource();
+		in = new BitReader(source);
+	}
+
+	@Benchmark
+	public void writeBit(ProcessedBytes processed)
+	{
+		output.clear();
+		out.reset();
+		for (int i = 0; i < sf_BitIOBytes; i++)
+		{
+			byte b = bytes[i];
+			for (int bit = Byte.SIZE - 1; bit >= 0; bit--)
+			{
+				out.writeBit(((b >>> bit) & 1) == 1);
+			}
+		}
+		out.flush();
+
+		processed.add(sf_BitIOBytes);
+	}
+
+	@Benchmark
+	public void writeBits(ProcessedBytes processed)
+	{
+		output.clear();
+		out.reset();
+		for (int i = 0; i < lengths.length; i++)
+		{
+			out.writeBits(i, lengths[i]);
+		}
+		out.flush();
+
+		processed.add(codeBytes);
+	}
+
+	@Benchmark
+	public void writeBytes(ProcessedBytes processed)
+	{
+		output.clear();
+		out.reset();
+		out.writeBytes(bytes, 0, bytes.length);
+		out.flush();
+
+		processed.add(sf_BitIOBytes);
+	}
+
+	@Benchmark
+	public long readBit(ProcessedBytes processed)
+	{
+		source.setInput(ByteBuffer.wrap(bytes));
+		in.reset();
+		long ones = 0;
+		for (long i = 0; i < (long) Byte.SIZE * sf_BitIOBytes; i++)
+		{
+			if (in.readBit())
+			{
+				ones++;
+			}
+		}
+
+		processed.add(sf_BitIOBytes);
+		return ones;
+	}
+
+	@Benchmark
+	public long readBits(ProcessedBytes processed)
+	{
+		source.setInput(ByteBuffer.wrap(bytes));
+		in.reset();
+		long sum = 0;
+		for (int i = 0; i < lengths.length; i++)
+		{
+			sum += in.readBits(lengths[i]);
+		}
+
+		processed.add(codeBytes);
+		return sum;
+	}
+
+	@Benchmark
+	public byte readBytes(ProcessedBytes processed)
+	{
+		source.setInput(ByteBuffer.wrap(bytes));
+		in.reset();
+		in.readBytes(readBack, 0, readBack.length);
+
+		processed.add(sf_BitIOBytes);
+		return readBack[readBack.length - 1];
+	}
+}
@@ -0,0 +1,86 @@
+package benchmark;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import encoder_decoder.AdaptiveHuffmanEncoderDecoder;
+
+/**
+ * {@code Compress} and {@code Decompress} of the example inputs, a text, a BMP and a PNG, for every symbol size.
+ * Decompressing reads a file compressed once in the setup.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CodecBenchmark
+{
+	@Param({"OnTheOrigin.txt", "Smiley.bmp", "kodim22.png"})
+	public String fileName;
+
+	@Param({"1", "2", "3", "4", "5", "6", "7", "8"})
+	public int symbolSize;
+
+	private Path outputDir;
+	private AdaptiveHuffmanEncoderDecoder ende;
+	private long inputLength;
+	private String[] input;
+	private String[] compressOutput;
+	private String[] compressed;
+	private String[] decompressed;
+
+	@Setup(Level.Trial)
+	public void compressInput() throws IOException
+	{
+		BenchmarkFiles.muteConsole();
+		outputDir = BenchmarkFiles.createOutputDir();
+
+		input = new String[]{Path.of(BenchmarkFiles.sf_InputDirName, fileName).toString()};
+		inputLength = Files.size(Path.of(input[0]));
+		compressOutput = new String[]{outputDir.resolve(fileName + ".out.comp").toString()};
+		compressed = new String[]{outputDir.resolve(fileName + ".comp").toString()};
+		decompressed = new String[]{outputDir.resolve(fileName).toString()};
+
+		ende = new AdaptiveHuffmanEncoderDecoder(symbolSize);
+		ende.Compress(input, compressed);
+	}
+
+	@TearDown(Level.Trial)
+	public void deleteOutput()
+	{
+		BenchmarkFiles.deleteDir(outputDir.toFile());
+		BenchmarkFiles.unmuteConsole();
+	}
+
+	@Benchmark
+	public void compress(ProcessedBytes processed)
+	{
+		ende.Compress(input, compressOutput);
+		processed.add(inputLength);
+	}
+
+	@Benchmark
+	public void decompress(ProcessedBytes processed)
+	{
+		ende.Decompress(compressed, decompressed);
+		processed.add(inputLength);
+	}
+}
@@ -0,0 +1,32 @@
+package benchmark;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Counts the input a benchmark method processes. JMH reports it next to the primary result as {@code megabytes},
+ * the throughput in MB/s of input, which compares across inputs of different sizes where operations per second do not.
+ */
+@State(Scope.Thread)
+@AuxCounters(AuxCounters.Type.OPERATIONS)
+public class ProcessedBytes
+{
+	public double megabytes;
+
+	@Setup(Level.Iteration)
+	public void clear()
+	{
+		megabytes = 0;
+	}
+
+	/**
+	 * @param bytes number of input bytes an invocation processed
+	 */
+	void add(long bytes)
+	{
+		megabytes += bytes / (double) (1 << 20);
+	}
+}
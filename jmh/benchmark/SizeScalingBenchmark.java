@@ -0,0 +1,90 @@
+package benchmark;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import encoder_decoder.AdaptiveHuffmanEncoderDecoder;
+
+/**
+ * {@code Compress} and {@code Decompress} of synthetic files of every workload of {@link WorkloadGenerator},
+ * doubling in size. Larger inputs are given with {@code -p inputMB=...}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 3, time = 1)
+@Fork(1)
+public class SizeScalingBenchmark
+{
+	static final long sf_Seed = 1;
+
+	@Param({"uniform", "zipfian", "markovText", "random", "runs"})
+	public eWorkload workload;
+
+	@Param({"1", "2", "4", "8", "16", "32", "64"})
+	public int inputMB;
+
+	private Path outputDir;
+	private AdaptiveHuffmanEncoderDecoder ende;
+	private long inputLength;
+	private String[] input;
+	private String[] compressOutput;
+	private String[] compressed;
+	private String[] decompressed;
+
+	@Setup(Level.Trial)
+	public void compressInput() throws IOException
+	{
+		BenchmarkFiles.muteConsole();
+		outputDir = BenchmarkFiles.createOutputDir();
+
+		Path inputPath = outputDir.resolve("workload");
+		inputLength = (long) inputMB << 20;
+		new WorkloadGenerator(workload, 1, 1 << Byte.SIZE, sf_Seed).generate(inputPath, inputLength);
+
+		input = new String[]{inputPath.toString()};
+		compressOutput = new String[]{outputDir.resolve("workload.out.comp").toString()};
+		compressed = new String[]{outputDir.resolve("workload.comp").toString()};
+		decompressed = new String[]{outputDir.resolve("workload.out").toString()};
+
+		ende = new AdaptiveHuffmanEncoderDecoder(1);
+		ende.Compress(input, compressed);
+	}
+
+	@TearDown(Level.Trial)
+	public void deleteOutput()
+	{
+		BenchmarkFiles.deleteDir(outputDir.toFile());
+		BenchmarkFiles.unmuteConsole();
+	}
+
+	@Benchmark
+	public void compress(ProcessedBytes processed)
+	{
+		ende.Compress(input, compressOutput);
+		processed.add(inputLength);
+	}
+
+	@Benchmark
+	public void decompress(ProcessedBytes processed)
+	{
+		ende.Decompress(compressed, decompressed);
+		processed.add(inputLength);
+	}
+}
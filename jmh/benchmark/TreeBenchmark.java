@@ -0,0 +1,135 @@
+package benchmark;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import BinaryIO.BitWriter;
+import tree_utils.ArrayHuffmanTree;
+import tree_utils.HuffmanTree;
+import tree_utils.Node;
+import tree_utils.eUpdateRule;
+import utilities.Symbol;
+
+/**
+ * {@link HuffmanTree#updateTree} and {@link HuffmanTree#containsSymbol} over the bytes of a text,
+ * and the whole encoding step of both tree engines for comparison, both with the legacy update rule
+ * since the node engine implements only that one.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TreeBenchmark
+{
+	static final String sf_TreeInputFileName = "OnTheOrigin.txt";
+
+	private byte text[];
+	private Symbol symbols[];
+	private HuffmanTree tree;
+	private ArrayHuffmanTree arrayTree;
+	private BitWriter discard;
+
+	/**
+	 * read the text, and build the node tree of it, which {@link #containsSymbol} looks the symbols up in
+	 */
+	@Setup(Level.Trial)
+	public void readText() throws IOException
+	{
+		text = Files.readAllBytes(Path.of(BenchmarkFiles.sf_InputDirName, sf_TreeInputFileName));
+		symbols = new Symbol[text.length];
+		for (int i = 0; i < text.length; i++)
+		{
+			symbols[i] = new Symbol(text[i]);
+		}
+
+		tree = new HuffmanTree();
+		updateAll();
+
+		arrayTree = new ArrayHuffmanTree(eUpdateRule.legacy, 1);
+		discard = new BitWriter(OutputStream.nullOutputStream());
+	}
+
+	@Benchmark
+	public void updateTree(ProcessedBytes processed)
+	{
+		tree.reset();
+		updateAll();
+		processed.add(text.length);
+	}
+
+	@Benchmark
+	public long containsSymbol(ProcessedBytes processed)
+	{
+		long found = 0;
+		for (Symbol symbol : symbols)
+		{
+			if (tree.containsSymbol(symbol) != null)
+			{
+				found++;
+			}
+		}
+
+		processed.add(text.length);
+		return found;
+	}
+
+	@Benchmark
+	public void nodeEncodeSymbol(ProcessedBytes processed)
+	{
+		tree.reset();
+		for (byte b : text)
+		{
+			tree.encodeSymbol(b & 0xff, 1, discard);
+		}
+
+		processed.add(text.length);
+	}
+
+	@Benchmark
+	public void arrayEncodeSymbol(ProcessedBytes processed)
+	{
+		arrayTree.reset();
+		for (byte b : text)
+		{
+			arrayTree.encodeSymbol(b & 0xff, 1, discard);
+		}
+
+		processed.add(text.length);
+	}
+
+	/**
+	 * add or update every symbol of the text in the node tree
+	 */
+	private void updateAll()
+	{
+		for (Symbol symbol : symbols)
+		{
+			Node node = tree.containsSymbol(symbol);
+			if (node == null)
+			{
+				tree.addNewSymbolNode(symbol);
+			}
+			else
+			{
+				tree.updateTree(node);
+			}
+		}
+	}
+}
@@ -0,0 +1,234 @@
+package benchmark;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * Generates synthetic inputs for the benchmarks, of any size, symbol width and number of distinct symbols. <br>
+ * The output depends only on the settings and the seed, so the same workload can be generated again on another machine.
+ * Files are written a chunk at a time, so inputs of several GB take no more memory than small ones.
+ */
+public class WorkloadGenerator
+{
+	private static final int CHUNK_SIZE = 1 << 16;
+	private static final int MARKOV_SUCCESSORS = 8;
+	private static final double MARKOV_FOLLOW_PROBABILITY = 0.9;
+	private static final int MEAN_RUN_LENGTH = 64;
+	// multiplying by an odd number is a bijection modulo any power of 2, so the low bytes of distinct indexes
+	// make distinct symbols
+	private static final long SYMBOL_MULTIPLIER = 0x9E3779B97F4A7C15L;
+
+	private final eWorkload workload;
+	private final int symbolWidth;
+	private final int alphabetSize;
+	private final long seed;
+
+	// state carried from one chunk to the next
+	private SplittableRandom random;
+	private double zipfCdf[];
+	private int successors[];
+	private int previousSymbol;
+	private int runSymbol;
+	private long runLeft;
+	private byte pendingBytes[];
+	private int pendingPosition;
+
+	/**
+	 * @param workload the kind of data to generate
+	 * @param symbolWidth bytes per symbol, between 1 and 8
+	 * @param alphabetSize number of distinct symbols, at most 2^(8 * {@code symbolWidth}). not used by {@link eWorkload#random}
+	 * @param seed seed of the pseudo random generator
+	 */
+	public WorkloadGenerator(eWorkload workload, int symbolWidth, int alphabetSize, long seed)
+	{
+		if (symbolWidth < 1 || symbolWidth > Long.BYTES)
+		{
+			throw new IllegalArgumentException("Symbol width " + symbolWidth + " is not between 1 and " + Long.BYTES);
+		}
+
+		if (alphabetSize < 1 || (symbolWidth < Integer.BYTES && alphabetSize > 1 << (Byte.SIZE * symbolWidth)))
+		{
+			throw new IllegalArgumentException("Alphabet of " + alphabetSize + " symbols does not fit symbols of " + symbolWidth + " bytes");
+		}
+
+		this.workload = workload;
+		this.symbolWidth = symbolWidth;
+		this.alphabetSize = alphabetSize;
+		this.seed = seed;
+	}
+
+	/**
+	 * @param length number of bytes to generate
+	 * @return the generated bytes
+	 */
+	public byte[] generate(int length)
+	{
+		byte bytes[] = new byte[length];
+
+		start();
+		fill(bytes, length);
+
+		return bytes;
+	}
+
+	/**
+	 * write the generated bytes to a file, replacing it if it exists
+	 * @param path the file to write
+	 * @param length number of bytes to generate
+	 * @throws IOException if writing the file failed
+	 */
+	public void generate(Path path, long length) throws IOException
+	{
+		byte chunk[] = new byte[CHUNK_SIZE];
+
+		start();
+
+		try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(path), CHUNK_SIZE))
+		{
+			while (length > 0)
+			{
+				int chunkLength = (int) Math.min(CHUNK_SIZE, length);
+				fill(chunk, chunkLength);
+				out.write(chunk, 0, chunkLength);
+				length -= chunkLength;
+			}
+		}
+	}
+
+	/**
+	 * reset the generator to the start of the workload
+	 */
+	private void start()
+	{
+		random = new SplittableRandom(seed);
+		pendingBytes = new byte[symbolWidth];
+		pendingPosition = symbolWidth;
+		previousSymbol = 0;
+		runLeft = 0;
+
+		if (workload == eWorkload.zipfian || workload == eWorkload.markovText)
+		{
+			zipfCdf = zipfCdf(workload == eWorkload.zipfian ? alphabetSize : MARKOV_SUCCESSORS);
+		}
+
+		if (workload == eWorkload.markovText)
+		{
+			successors = new int[alphabetSize * MARKOV_SUCCESSORS];
+			for (int i = 0; i < successors.length; i++)
+			{
+				successors[i] = random.nextInt(alphabetSize);
+			}
+		}
+	}
+
+	/**
+	 * fill the first {@code length} bytes of {@code bytes} with the next bytes of the workload.
+	 * a symbol may be split between two calls.
+	 */
+	private void fill(byte bytes[], int length)
+	{
+		if (workload == eWorkload.random)
+		{
+			for (int i = 0; i < length; i += Long.BYTES)
+			{
+				long word = random.nextLong();
+				for (int j = i; j < Math.min(length, i + Long.BYTES); j++, word >>>= Byte.SIZE)
+				{
+					bytes[j] = (byte) word;
+				}
+			}
+
+			return;
+		}
+
+		for (int i = 0; i < length; i++)
+		{
+			if (pendingPosition == symbolWidth)
+			{
+				long symbol = nextSymbolIndex() * SYMBOL_MULTIPLIER;
+				for (int j = symbolWidth - 1; j >= 0; j--, symbol >>>= Byte.SIZE)
+				{
+					pendingBytes[j] = (byte) symbol;
+				}
+
+				pendingPosition = 0;
+			}
+
+			bytes[i] = pendingBytes[pendingPosition++];
+		}
+	}
+
+	/**
+	 * @return index in the alphabet of the next symbol
+	 */
+	private long nextSymbolIndex()
+	{
+		switch (workload)
+		{
+		case zipfian:
+			return nextZipf();
+
+		case markovText:
+			if (random.nextDouble() < MARKOV_FOLLOW_PROBABILITY)
+			{
+				previousSymbol = successors[previousSymbol * MARKOV_SUCCESSORS + nextZipf()];
+			}
+			else
+			{
+				previousSymbol = random.nextInt(alphabetSize);
+			}
+
+			return previousSymbol;
+
+		case runs:
+			if (runLeft == 0)
+			{
+				runSymbol = random.nextInt(alphabetSize);
+				// geometric run lengths
+				runLeft = 1 + (long) (Math.log(1 - random.nextDouble()) * -MEAN_RUN_LENGTH);
+			}
+
+			runLeft--;
+			return runSymbol;
+
+		default:
+			return random.nextInt(alphabetSize);
+		}
+	}
+
+	/**
+	 * @return a rank drawn from {@link #zipfCdf}, 0 for the most frequent
+	 */
+	private int nextZipf()
+	{
+		int rank = Arrays.binarySearch(zipfCdf, random.nextDouble());
+		return Math.min(rank < 0 ? -rank - 1 : rank, zipfCdf.length - 1);
+	}
+
+	/**
+	 * @param n number of ranks
+	 * @return cumulative probabilities of the ranks, the k-th rank having a probability proportional to 1/(k+1)
+	 */
+	private static double[] zipfCdf(int n)
+	{
+		double cdf[] = new double[n];
+		double sum = 0;
+		for (int k = 0; k < n; k++)
+		{
+			sum += 1.0 / (k + 1);
+			cdf[k] = sum;
+		}
+
+		for (int k = 0; k < n; k++)
+		{
+			cdf[k] /= sum;
+		}
+
+		return cdf;
+	}
+}
@@ -0,0 +1,18 @@
+package benchmark;
+
+/**
+ * The kinds of data {@link WorkloadGenerator} produces. <br>
+ * uniform - every symbol of the alphabet equally likely. <br>
+ * zipfian - the k-th most frequent symbol has a probability proportional to 1/k, like the words of a language. <br>
+ * markovText - each symbol mostly followed by one of a few successors of its own, like the letters of a text. <br>
+ * random - incompressible random bytes, regardless of the alphabet. <br>
+ * runs - long runs of the same symbol, like the rows of a simple image.
+ */
+public enum eWorkload
+{
+	uniform,
+	zipfian,
+	markovText,
+	random,
+	runs
+}
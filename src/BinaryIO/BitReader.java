@@ -0,0 +1,303 @@
+package BinaryIO;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Reads bits from a {@link ByteSource} (a memory mapped file or a buffered input stream), most significant bit first. <br>
+ * Bits are served from a 64 bit accumulator that is refilled a whole word at a time from the source's buffer,
+ * so a code can be peeked at and then skipped instead of read bit by bit. <br>
+ * Reading never throws at the end of the input: the bits past it read as 0 and are counted,
+ * so a decoder can check {@link #isOverrun} once per symbol instead of guarding every bit.
+ * {@link #hasBits} and {@link #remainingBits} tell how much is left beforehand. <br>
+ * I/O errors of the underlying input are thrown as {@link UncheckedIOException}.
+ */
+public class BitReader
+{
+	/**
+	 * the maximal number of bits that can be peeked at once
+	 */
+	public static final int MAX_PEEK_BITS = Long.SIZE - Byte.SIZE;
+
+	private static final ByteBuffer EMPTY = ByteBuffer.allocate(0);
+
+	private ByteSource source;
+	private ByteBuffer words;
+	private int position;
+	private int limit;
+	private boolean reachedEOF;
+	private long consumedBytes;	// bytes of the buffers before the current one
+
+	private long accumulator;	// next bits, left aligned
+	private int availableBits;	// number of valid bits in the accumulator
+	private long overrunBits;	// number of bits read past the end of the input
+
+	public BitReader(InputStream in)
+	{
+		this(ByteSource.of(in));
+	}
+
+	public BitReader(ByteSource source)
+	{
+		this.source = source;
+		reset();
+	}
+
+	/**
+	 * forget all the bits read so far and start over from the source's next buffer,
+	 * after the source was pointed at a new input.
+	 */
+	public void reset()
+	{
+		words = EMPTY;
+		position = 0;
+		limit = 0;
+		reachedEOF = false;
+		consumedBytes = 0;
+		accumulator = 0;
+		availableBits = 0;
+		overrunBits = 0;
+	}
+
+	/**
+	 * @return {@code true} if and only if all the bits were read
+	 */
+	public boolean isEmpty()
+	{
+		if (availableBits == 0)
+		{
+			refill(1);
+		}
+
+		return availableBits == 0;
+	}
+
+	/**
+	 * @param count number of bits, between 1 and {@link #MAX_PEEK_BITS}
+	 * @return {@code true} if and only if at least {@code count} bits are left to read
+	 */
+	public boolean hasBits(int count)
+	{
+		if (availableBits < count)
+		{
+			refill(count);
+		}
+
+		return availableBits >= count;
+	}
+
+	/**
+	 * @return the exact number of bits left to read, -1 if the source can not tell (a stream that has not ended yet)
+	 */
+	public long remainingBits()
+	{
+		long remainingBytes = source.remaining();
+		if (remainingBytes < 0)
+		{
+			return -1;
+		}
+
+		return availableBits + Byte.SIZE * (limit - position + remainingBytes);
+	}
+
+	/**
+	 * @return number of bits read since the reader was created or reset, not counting bits read past the end of the input
+	 */
+	public long getBitsRead()
+	{
+		return Byte.SIZE * (consumedBytes + position) - availableBits;
+	}
+
+	/**
+	 * @return {@code true} if and only if more bits were read than the input holds
+	 */
+	public boolean isOverrun()
+	{
+		return overrunBits > 0;
+	}
+
+	/**
+	 * @return the next bit, {@code true} for 1. past the end of the input the bit is 0.
+	 */
+	public boolean readBit()
+	{
+		return readBits(1) == 1;
+	}
+
+	/**
+	 * read the next {@code count} bits
+	 * @param count number of bits to read, between 1 and {@link #MAX_PEEK_BITS}
+	 * @return the bits, right aligned. past the end of the input the bits are 0.
+	 */
+	public long readBits(int count)
+	{
+		long bits = peekBits(count);
+		skipBits(count);
+		return bits;
+	}
+
+	/**
+	 * look at the next {@code count} bits without consuming them. past the end of the input the bits are 0.
+	 * @param count number of bits to look at, between 1 and {@link #MAX_PEEK_BITS}
+	 * @return the bits, right aligned
+	 */
+	public long peekBits(int count)
+	{
+		if (availableBits < count)
+		{
+			refill(count);
+		}
+
+		return accumulator >>> (Long.SIZE - count);
+	}
+
+	/**
+	 * consume bits that were already peeked at. the bits past the end of the input are counted as overrun.
+	 * @param count number of bits to skip, at most the number of bits peeked
+	 */
+	public void skipBits(int count)
+	{
+		if (count > availableBits)
+		{
+			overrunBits += count - availableBits;
+			count = availableBits;
+		}
+
+		accumulator <<= count;
+		availableBits -= count;
+	}
+
+	/**
+	 * @return the next 8 bits as a byte, past the end of the input the bits are 0
+	 */
+	public byte readByte()
+	{
+		return (byte) readBits(Byte.SIZE);
+	}
+
+	/**
+	 * read {@code length} bytes into {@code bytes}, starting at {@code offset}. <br>
+	 * if the input is byte aligned the bytes are copied as a block, otherwise they are read from the accumulator.
+	 * past the end of the input the bytes are 0.
+	 */
+	public void readBytes(byte bytes[], int offset, int length)
+	{
+		if (availableBits % Byte.SIZE != 0)
+		{
+			for (; length > 0; offset++, length--)
+			{
+				bytes[offset] = readByte();
+			}
+
+			return;
+		}
+
+		// first whatever whole bytes are in the accumulator
+		for (; length > 0 && availableBits > 0; offset++, length--)
+		{
+			bytes[offset] = readByte();
+		}
+
+		if (length > 0)
+		{
+			// the accumulator is empty, but may still hold bits of the bytes about to be copied
+			accumulator = 0;
+		}
+
+		while (length > 0)
+		{
+			if (position == limit && !fillBuffer())
+			{
+				Arrays.fill(bytes, offset, offset + length, (byte) 0);
+				overrunBits += (long) Byte.SIZE * length;
+				return;
+			}
+
+			int chunk = Math.min(length, limit - position);
+			words.get(position, bytes, offset, chunk);
+			position += chunk;
+			offset += chunk;
+			length -= chunk;
+		}
+	}
+
+	public void close()
+	{
+		try
+		{
+			source.close();
+		}
+		catch (IOException e)
+		{
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/**
+	 * top up the accumulator to at least {@link #MAX_PEEK_BITS} bits, or to whatever is left of the input.
+	 * the source is asked for more bytes only while the accumulator and the buffer hold fewer than {@code count} bits,
+	 * so a reader of a stream does not wait for bytes it does not need yet.
+	 * @param count number of bits needed, between 1 and {@link #MAX_PEEK_BITS}
+	 */
+	private void refill(int count)
+	{
+		if (limit - position < Long.BYTES && !reachedEOF && availableBits + Byte.SIZE * (limit - position) < count)
+		{
+			fillBuffer();
+		}
+
+		if (limit - position >= Long.BYTES)
+		{
+			// the bits past the whole bytes taken are the true next bits, so reading them again later is harmless
+			accumulator |= words.getLong(position) >>> availableBits;
+			int bytesTaken = (Long.SIZE - 1 - availableBits) / Byte.SIZE;
+			position += bytesTaken;
+			availableBits += bytesTaken * Byte.SIZE;
+			return;
+		}
+
+		while (availableBits <= MAX_PEEK_BITS)
+		{
+			if (position == limit && (availableBits >= count || !fillBuffer()))
+			{
+				return;
+			}
+
+			accumulator |= (words.get(position++) & 0xffL) << (MAX_PEEK_BITS - availableBits);
+			availableBits += Byte.SIZE;
+		}
+	}
+
+	/**
+	 * get the next buffer from the source, starting with the unread bytes
+	 * @return {@code false} if and only if there are no unread bytes left
+	 */
+	private boolean fillBuffer()
+	{
+		consumedBytes += position;
+
+		ReadEvent event = new ReadEvent();
+		event.begin();
+
+		try
+		{
+			words = source.refill(position);
+		}
+		catch (IOException e)
+		{
+			throw new UncheckedIOException(e);
+		}
+
+		event.bytes = words.limit();
+		event.commit();
+
+		position = 0;
+		limit = words.limit();
+		reachedEOF = source.isExhausted();
+
+		return limit > position;
+	}
+}
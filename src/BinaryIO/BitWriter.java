@@ -0,0 +1,267 @@
+package BinaryIO;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+
+/**
+ * Writes bits to a {@link ByteSink} (a file channel or a buffered output stream), most significant bit first. <br>
+ * Bits are collected in a 64 bit accumulator and moved to the sink's buffer a whole word at a time,
+ * the buffer is written out only when it is full or flushed. <br>
+ * The client must {@link #flush} or {@link #close} the writer when finished, the last byte is padded with 0's.
+ * I/O errors of the underlying output are thrown as {@link UncheckedIOException}.
+ */
+public class BitWriter
+{
+	private ByteSink sink;
+	private ByteBuffer words;
+	private int capacity;
+	private int position;
+	private long flushedBytes;	// bytes written out of the buffer to the sink
+
+	private long accumulator;	// pending bits, right aligned
+	private int pendingBits;	// number of bits in the accumulator, always < 64
+
+	public BitWriter(OutputStream out)
+	{
+		this(ByteSink.of(out));
+	}
+
+	public BitWriter(ByteSink sink)
+	{
+		this.sink = sink;
+		this.words = sink.buffer();
+		this.capacity = words.capacity();
+	}
+
+	/**
+	 * drop any bits not flushed yet and start over at the beginning of the sink's buffer,
+	 * after the sink was pointed at a new output.
+	 */
+	public void reset()
+	{
+		position = 0;
+		flushedBytes = 0;
+		accumulator = 0;
+		pendingBits = 0;
+	}
+
+	/**
+	 * @return number of bits written since the writer was created or reset, padding included
+	 */
+	public long getBitsWritten()
+	{
+		return Byte.SIZE * (flushedBytes + position) + pendingBits;
+	}
+
+	/**
+	 * write a single bit
+	 * @param bit {@code true} for 1, {@code false} for 0
+	 */
+	public void writeBit(boolean bit)
+	{
+		writeBits(bit ? 1 : 0, 1);
+	}
+
+	/**
+	 * write the {@code count} least significant bits of {@code bits}, most significant bit first.
+	 * @param bits the bits to write
+	 * @param count number of bits to write, between 0 and 64
+	 */
+	public void writeBits(long bits, int count)
+	{
+		if (count < Long.SIZE)
+		{
+			bits &= (1L << count) - 1;
+		}
+
+		int freeBits = Long.SIZE - pendingBits;
+		if (count < freeBits)
+		{
+			accumulator = (accumulator << count) | bits;
+			pendingBits += count;
+			return;
+		}
+
+		// fill the accumulator up to a whole word and move it to the buffer
+		int remainingBits = count - freeBits;
+		long word = bits >>> remainingBits;
+		if (pendingBits > 0)
+		{
+			word |= accumulator << freeBits;
+		}
+
+		if (position + Long.BYTES > capacity)
+		{
+			flushBuffer();
+		}
+
+		words.putLong(position, word);
+		position += Long.BYTES;
+
+		accumulator = bits;
+		pendingBits = remainingBits;
+	}
+
+	/**
+	 * write the 8 least significant bits of {@code b}
+	 * @param b the byte to write
+	 */
+	public void writeByte(int b)
+	{
+		writeBits(b, Byte.SIZE);
+	}
+
+	/**
+	 * write {@code length} bytes from {@code bytes}, starting at {@code offset}. <br>
+	 * if the output is byte aligned the bytes are copied as a block, otherwise they are shifted in a word at a time.
+	 */
+	public void writeBytes(byte bytes[], int offset, int length)
+	{
+		if (pendingBits % Byte.SIZE != 0)
+		{
+			for (; length >= Long.BYTES; offset += Long.BYTES, length -= Long.BYTES)
+			{
+				long word = 0;
+				for (int i = 0; i < Long.BYTES; i++)
+				{
+					word = (word << Byte.SIZE) | (bytes[offset + i] & 0xff);
+				}
+
+				writeBits(word, Long.SIZE);
+			}
+
+			for (; length > 0; offset++, length--)
+			{
+				writeByte(bytes[offset]);
+			}
+
+			return;
+		}
+
+		drainAccumulator();
+
+		while (length > 0)
+		{
+			if (position == capacity)
+			{
+				flushBuffer();
+			}
+
+			int chunk = Math.min(length, capacity - position);
+			words.position(position);
+			words.put(bytes, offset, chunk);
+			position += chunk;
+			offset += chunk;
+			length -= chunk;
+		}
+	}
+
+	/**
+	 * write out the pending bits, padding the last byte with 0's, and flush the stream.
+	 */
+	public void flush()
+	{
+		if (pendingBits % Byte.SIZE != 0)
+		{
+			writeBits(0, Byte.SIZE - pendingBits % Byte.SIZE);
+		}
+
+		drainAccumulator();
+		flushBuffer();
+
+		try
+		{
+			sink.flush();
+		}
+		catch (IOException e)
+		{
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/**
+	 * write out every complete byte written so far and flush the stream. up to 7 bits stay pending,
+	 * so unlike {@link #flush} this can be called in the middle of the output.
+	 */
+	public void flushCompleteBytes()
+	{
+		if (position + Long.BYTES > capacity)
+		{
+			flushBuffer();
+		}
+
+		while (pendingBits >= Byte.SIZE)
+		{
+			pendingBits -= Byte.SIZE;
+			words.put(position++, (byte) (accumulator >>> pendingBits));
+		}
+
+		flushBuffer();
+
+		try
+		{
+			sink.flush();
+		}
+		catch (IOException e)
+		{
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/**
+	 * flush and close the underlying stream
+	 */
+	public void close()
+	{
+		flush();
+
+		try
+		{
+			sink.close();
+		}
+		catch (IOException e)
+		{
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/**
+	 * move the whole bytes of the accumulator to the buffer, only call when the pending bits are byte aligned
+	 */
+	private void drainAccumulator()
+	{
+		if (position + Long.BYTES > capacity)
+		{
+			flushBuffer();
+		}
+
+		while (pendingBits > 0)
+		{
+			pendingBits -= Byte.SIZE;
+			words.put(position++, (byte) (accumulator >>> pendingBits));
+		}
+	}
+
+	private void flushBuffer()
+	{
+		FlushEvent event = new FlushEvent();
+		event.begin();
+
+		try
+		{
+			sink.write(position);
+		}
+		catch (IOException e)
+		{
+			throw new UncheckedIOException(e);
+		}
+
+		event.bytes = position;
+		event.commit();
+
+		flushedBytes += position;
+		position = 0;
+	}
+}
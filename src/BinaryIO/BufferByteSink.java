@@ -0,0 +1,71 @@
+package BinaryIO;
+
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+
+/**
+ * Writes into a caller supplied {@link ByteBuffer}, a heap or a direct one, starting at its position. <br>
+ * The bytes are collected in a heap buffer of the sink's own, so the same sink (and the writer on top of it)
+ * can be pointed at a new output buffer for every call without allocating anything.
+ */
+public class BufferByteSink implements ByteSink
+{
+	private static final int BUFFER_SIZE = 1 << 16;
+	private static final ByteBuffer EMPTY = ByteBuffer.allocate(0);
+
+	private ByteBuffer output;
+	private ByteBuffer buffer;
+
+	public BufferByteSink()
+	{
+		this(EMPTY);
+	}
+
+	public BufferByteSink(ByteBuffer output)
+	{
+		this.buffer = ByteBuffer.allocate(BUFFER_SIZE);
+		setOutput(output);
+	}
+
+	/**
+	 * write into {@code output} from its position. its position is advanced past the bytes written,
+	 * a writer writing to this sink must be reset afterwards.
+	 * @param output the buffer to write into
+	 */
+	public void setOutput(ByteBuffer output)
+	{
+		this.output = output;
+	}
+
+	@Override
+	public ByteBuffer buffer()
+	{
+		return buffer;
+	}
+
+	/**
+	 * @throws BufferOverflowException if there is no room left in the output buffer for {@code length} bytes
+	 */
+	@Override
+	public void write(int length)
+	{
+		if (output.remaining() < length)
+		{
+			throw new BufferOverflowException();
+		}
+
+		output.put(buffer.array(), 0, length);
+	}
+
+	@Override
+	public void flush()
+	{
+		// every write already went to the output buffer
+	}
+
+	@Override
+	public void close()
+	{
+		// the output buffer belongs to the caller
+	}
+}
@@ -0,0 +1,72 @@
+package BinaryIO;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Reads the remaining bytes of a {@link ByteBuffer}, a heap or a direct one. <br>
+ * The bytes are copied into a heap buffer of the source's own, so the same source (and the reader on top of it)
+ * can be pointed at a new input buffer for every call without allocating anything.
+ */
+public class BufferByteSource implements ByteSource
+{
+	private static final int BUFFER_SIZE = 1 << 16;
+	private static final ByteBuffer EMPTY = ByteBuffer.allocate(0);
+
+	private ByteBuffer input;
+	private byte buffer[];
+	private ByteBuffer words;
+
+	public BufferByteSource()
+	{
+		this(EMPTY);
+	}
+
+	public BufferByteSource(ByteBuffer input)
+	{
+		this.buffer = new byte[BUFFER_SIZE];
+		this.words = ByteBuffer.wrap(buffer);
+		setInput(input);
+	}
+
+	/**
+	 * read {@code input} from its position up to its limit. its position is advanced as its bytes are copied,
+	 * a reader reading this source must be reset afterwards.
+	 * @param input the buffer to read
+	 */
+	public void setInput(ByteBuffer input)
+	{
+		this.input = input;
+		this.words.limit(0);
+	}
+
+	@Override
+	public ByteBuffer refill(int position)
+	{
+		int limit = words.limit() - position;
+		System.arraycopy(buffer, position, buffer, 0, limit);
+
+		int chunk = Math.min(input.remaining(), buffer.length - limit);
+		input.get(buffer, limit, chunk);
+
+		words.limit(limit + chunk);
+		return words;
+	}
+
+	@Override
+	public boolean isExhausted()
+	{
+		return !input.hasRemaining();
+	}
+
+	@Override
+	public long remaining()
+	{
+		return input.remaining();
+	}
+
+	@Override
+	public void close()
+	{
+		// the input buffer belongs to the caller
+	}
+}
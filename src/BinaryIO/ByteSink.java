@@ -0,0 +1,65 @@
+package BinaryIO;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+
+/**
+ * The destination of a writer's bytes. The writer fills the sink's {@link #buffer} from index 0
+ * and has the sink {@link #write} it out whenever it is full.
+ */
+public interface ByteSink
+{
+	/**
+	 * @return the buffer to fill, the same one on every call
+	 */
+	public ByteBuffer buffer();
+
+	/**
+	 * write out the first {@code length} bytes of the buffer, after which it can be filled again from index 0.
+	 * @throws IOException if writing the output failed
+	 */
+	public void write(int length) throws IOException;
+
+	public void flush() throws IOException;
+
+	public void close() throws IOException;
+
+	/**
+	 * @param out the stream to write, through a heap buffer
+	 * @return a sink writing to {@code out}
+	 */
+	public static ByteSink of(OutputStream out)
+	{
+		return new StreamByteSink(out);
+	}
+
+	/**
+	 * @param output the buffer to write into, from its position
+	 * @return a sink writing into {@code output}, throwing {@link java.nio.BufferOverflowException} when it is full
+	 */
+	public static ByteSink into(ByteBuffer output)
+	{
+		return new BufferByteSink(output);
+	}
+
+	/**
+	 * @return a sink throwing the bytes away, for measuring the output of a writer with {@link BitWriter#getBitsWritten}
+	 */
+	public static ByteSink discarding()
+	{
+		return new NullByteSink();
+	}
+
+	/**
+	 * @param path the file to write, it is created or truncated and written through a {@link java.nio.channels.FileChannel}
+	 * from a direct buffer
+	 * @return a sink writing to the file at {@code path}
+	 * @throws IOException if the file could not be opened
+	 */
+	public static ByteSink open(Path path) throws IOException
+	{
+		return new ChannelByteSink(path);
+	}
+}
@@ -0,0 +1,65 @@
+package BinaryIO;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+
+/**
+ * The bytes of an input, served to a reader one buffer at a time. <br>
+ * The reader consumes a buffer from index 0 up to its limit and asks for the next one with {@link #refill},
+ * telling how far it got. The bytes it did not consume are at the start of the next buffer.
+ */
+public interface ByteSource
+{
+	/**
+	 * drop the bytes before {@code position} and get a buffer holding the rest of them from index 0,
+	 * followed by more bytes of the input, at least one unless the input ended.
+	 * a stream source adds only what the stream had ready, so a reader needing more bytes asks again.
+	 * @param position index of the first unconsumed byte in the buffer last returned, 0 for the first call
+	 * @return the buffer, its limit is the number of bytes in it
+	 * @throws IOException if reading the input failed
+	 */
+	public ByteBuffer refill(int position) throws IOException;
+
+	/**
+	 * @return {@code true} if and only if the buffer last returned holds all that is left of the input
+	 */
+	public boolean isExhausted();
+
+	/**
+	 * @return number of bytes of the input after the buffer last returned, -1 if the source can not tell
+	 * (a stream that has not ended yet)
+	 */
+	public long remaining();
+
+	public void close() throws IOException;
+
+	/**
+	 * @param in the stream to read, it is copied into a heap buffer
+	 * @return a source reading {@code in}
+	 */
+	public static ByteSource of(InputStream in)
+	{
+		return new StreamByteSource(in);
+	}
+
+	/**
+	 * @param input the buffer to read, from its position up to its limit
+	 * @return a source reading {@code input}
+	 */
+	public static ByteSource of(ByteBuffer input)
+	{
+		return new BufferByteSource(input);
+	}
+
+	/**
+	 * @param path the file to read, it is memory mapped (in windows if it is too large for one buffer)
+	 * @return a source reading the file at {@code path}
+	 * @throws IOException if the file could not be opened or mapped
+	 */
+	public static ByteSource map(Path path) throws IOException
+	{
+		return new MappedByteSource(path);
+	}
+}
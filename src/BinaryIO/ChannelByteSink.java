@@ -0,0 +1,56 @@
+package BinaryIO;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Writes a file through a {@link FileChannel} from a large direct buffer,
+ * so every write is a single system call with no copy to a temporary native buffer.
+ */
+class ChannelByteSink implements ByteSink
+{
+	private static final int BUFFER_SIZE = 1 << 20;
+
+	private FileChannel channel;
+	private ByteBuffer buffer;
+
+	ChannelByteSink(Path path) throws IOException
+	{
+		this.channel = FileChannel.open(path, StandardOpenOption.WRITE, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING);
+		this.buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+	}
+
+	@Override
+	public ByteBuffer buffer()
+	{
+		return buffer;
+	}
+
+	@Override
+	public void write(int length) throws IOException
+	{
+		buffer.limit(length).position(0);
+
+		while (buffer.hasRemaining())
+		{
+			channel.write(buffer);
+		}
+
+		buffer.clear();
+	}
+
+	@Override
+	public void flush() throws IOException
+	{
+		// every write already went to the channel
+	}
+
+	@Override
+	public void close() throws IOException
+	{
+		channel.close();
+	}
+}
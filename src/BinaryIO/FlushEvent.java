@@ -0,0 +1,23 @@
+package BinaryIO;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight recorder event for a {@link BitWriter} writing its buffer out to the {@link ByteSink}.
+ */
+@Name("BinaryIO.Flush")
+@Label("Buffer Flush")
+@Description("A bit writer writing its buffer to its output")
+@Category({ "Adaptive Huffman", "I/O" })
+@StackTrace(false)
+class FlushEvent extends jdk.jfr.Event
+{
+	@Label("Bytes")
+	@DataAmount
+	int bytes;
+}
@@ -0,0 +1,57 @@
+package BinaryIO;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Memory maps a file, so its bytes are read straight from the page cache without system calls or copies. <br>
+ * A buffer can not hold more than 2 GB, larger files are mapped in windows:
+ * every refill maps the next window starting at the first unconsumed byte.
+ */
+class MappedByteSource implements ByteSource
+{
+	private static final int MAX_WINDOW_SIZE = Integer.MAX_VALUE;
+
+	private FileChannel channel;
+	private long fileSize;
+	private long windowStart;
+	private ByteBuffer window;
+
+	MappedByteSource(Path path) throws IOException
+	{
+		this.channel = FileChannel.open(path, StandardOpenOption.READ);
+		this.fileSize = channel.size();
+		this.window = ByteBuffer.allocate(0);
+	}
+
+	@Override
+	public ByteBuffer refill(int position) throws IOException
+	{
+		windowStart += position;
+		long windowSize = Math.min(MAX_WINDOW_SIZE, fileSize - windowStart);
+		window = channel.map(FileChannel.MapMode.READ_ONLY, windowStart, windowSize);
+
+		return window;
+	}
+
+	@Override
+	public boolean isExhausted()
+	{
+		return windowStart + window.limit() == fileSize;
+	}
+
+	@Override
+	public long remaining()
+	{
+		return fileSize - windowStart - window.limit();
+	}
+
+	@Override
+	public void close() throws IOException
+	{
+		channel.close();
+	}
+}
@@ -0,0 +1,34 @@
+package BinaryIO;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Throws the bytes away, for a writer that is only run to count the bits it writes.
+ */
+class NullByteSink implements ByteSink
+{
+	private static final int BUFFER_SIZE = 1 << 12;
+
+	private ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+
+	@Override
+	public ByteBuffer buffer()
+	{
+		return buffer;
+	}
+
+	@Override
+	public void write(int length)
+	{
+	}
+
+	@Override
+	public void flush()
+	{
+	}
+
+	@Override
+	public void close()
+	{
+	}
+}
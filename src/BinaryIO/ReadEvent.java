@@ -0,0 +1,25 @@
+package BinaryIO;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight recorder event for a reader getting its next buffer from a {@link ByteSource}. <br>
+ * A mapped source only maps the next window here, the pages are read when the bytes are first used.
+ */
+@Name("BinaryIO.Read")
+@Label("Buffer Read")
+@Description("A reader getting the next buffer of its input")
+@Category({ "Adaptive Huffman", "I/O" })
+@StackTrace(false)
+public class ReadEvent extends jdk.jfr.Event
+{
+	@Label("Bytes")
+	@Description("Bytes in the buffer after the read, the unread ones included")
+	@DataAmount
+	public int bytes;
+}
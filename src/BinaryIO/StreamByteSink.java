@@ -0,0 +1,46 @@
+package BinaryIO;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * Writes to an output stream from a large heap buffer.
+ */
+class StreamByteSink implements ByteSink
+{
+	private static final int BUFFER_SIZE = 1 << 16;
+
+	private OutputStream out;
+	private ByteBuffer buffer;
+
+	StreamByteSink(OutputStream out)
+	{
+		this.out = out;
+		this.buffer = ByteBuffer.allocate(BUFFER_SIZE);
+	}
+
+	@Override
+	public ByteBuffer buffer()
+	{
+		return buffer;
+	}
+
+	@Override
+	public void write(int length) throws IOException
+	{
+		out.write(buffer.array(), 0, length);
+	}
+
+	@Override
+	public void flush() throws IOException
+	{
+		out.flush();
+	}
+
+	@Override
+	public void close() throws IOException
+	{
+		out.close();
+	}
+}
@@ -0,0 +1,71 @@
+package BinaryIO;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * Reads an input stream into a large heap buffer, moving the unconsumed bytes to its start on every refill.
+ * A refill returns after the first read that gets any bytes, so the buffer holds whatever the stream had ready.
+ */
+class StreamByteSource implements ByteSource
+{
+	private static final int BUFFER_SIZE = 1 << 16;
+
+	private InputStream in;
+	private byte buffer[];
+	private ByteBuffer words;
+	private boolean reachedEOF;
+
+	StreamByteSource(InputStream in)
+	{
+		this.in = in;
+		this.buffer = new byte[BUFFER_SIZE];
+		this.words = ByteBuffer.wrap(buffer);
+		this.words.limit(0);
+	}
+
+	@Override
+	public ByteBuffer refill(int position) throws IOException
+	{
+		int limit = words.limit() - position;
+		System.arraycopy(buffer, position, buffer, 0, limit);
+
+		// one read that gets anything is enough, waiting for a full buffer would hold back the bytes
+		// a pipe or a socket already delivered until the writer sends more
+		while (!reachedEOF && limit < buffer.length)
+		{
+			int read = in.read(buffer, limit, buffer.length - limit);
+			if (read < 0)
+			{
+				reachedEOF = true;
+			}
+			else if (read > 0)
+			{
+				limit += read;
+				break;
+			}
+		}
+
+		words.limit(limit);
+		return words;
+	}
+
+	@Override
+	public boolean isExhausted()
+	{
+		return reachedEOF;
+	}
+
+	@Override
+	public long remaining()
+	{
+		return reachedEOF ? 0 : -1;
+	}
+
+	@Override
+	public void close() throws IOException
+	{
+		in.close();
+	}
+}
@@ -0,0 +1,18 @@
+package BinaryIO;
+
+import java.io.IOException;
+
+/**
+ * Thrown when compressed input ends before everything its header announces was decoded,
+ * or in the middle of the header itself. <br>
+ * Where I/O errors are thrown as {@link java.io.UncheckedIOException}, it is thrown wrapped in one.
+ */
+public class TruncatedInputException extends IOException
+{
+	private static final long serialVersionUID = 1L;
+
+	public TruncatedInputException(String message)
+	{
+		super(message);
+	}
+}
@@ -1,32 +1,115 @@
 package encoder_decoder;
 
-import java.io.FileInputStream;
-import java.io.FileNotFoundException;
-import java.io.FileOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
 import java.io.IOException;
-import java.util.Arrays;
-import java.util.NoSuchElementException;
-import java.util.Stack;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 
-import BinaryIO.BinaryIn;
-import BinaryIO.BinaryOut;
+import BinaryIO.BitReader;
+import BinaryIO.BitWriter;
+import BinaryIO.BufferByteSink;
+import BinaryIO.BufferByteSource;
+import BinaryIO.ByteSink;
+import BinaryIO.ByteSource;
+import BinaryIO.TruncatedInputException;
 import base.Compressor;
 import tree_utils.*;
-import utilities.Converter;
 import utilities.Symbol;
+import utilities.SymbolReader;
 
 /**
  * This class implements the Adaptive Huffman algorithm for compression / decompression. <br>
- * Vitter algorithm for handling tree updation is used.
+ * Vitter algorithm for handling tree updation is used. <br>
+ * Input files are memory mapped and output files are written through a file channel.
+ * Failing to open, read or write a file is thrown as an {@link UncheckedIOException},
+ * compressed input that ends too early as one wrapping a {@link TruncatedInputException}. <br>
+ * Data already in memory is coded with {@link #compress(ByteBuffer, ByteBuffer)} / {@link #decompress(ByteBuffer, ByteBuffer)}
+ * without touching the filesystem. An instance is not thread safe. <br>
+ * With a block size set, files are compressed into the chunked container of {@link BlockContainer}, on multiple cores.
+ * Decompression recognizes the container by its header and decompresses its blocks on multiple cores too.
+ * A byte range of a container is decompressed by decoding only the blocks it overlaps, see {@link #decompressRange}. <br>
+ * Streams start with a header giving the symbol size and the input length, so the decoder knows how many symbols
+ * to decode and the symbols follow each other without any bits in between:
+ * <pre>
+ * magic           4 bytes  0x00 'A' 'H' 'S'
+ * version         1 byte
+ * symbol size     1 byte
+ * input length    1 to 10 bytes, 7 bits per byte least significant first, the high bit set on all bytes but the last
+ * partial length  1 byte   bytes in the last symbol if it is shorter than the symbol size, otherwise 0
+ * length limit    1 byte   version 3 and 4 only, the code length limit the tree was rescaled by, see {@link #setCodeLengthLimit},
+ *                          0 for none
+ * dictionary id   4 bytes  version 4 only, the {@link SeedDictionary} the tree was seeded with, see {@link #setDictionary}
+ * </pre>
+ * Without a dictionary the version is 3 with a code length limit and 2 without.
+ * Streams of the legacy update rule, and of {@link AdaptiveHuffmanOutputStream} which can not know the length up front,
+ * start with a 4 bit symbol size instead and follow every symbol with a control bit, 1 after the last one.
+ * The legacy format codes a last symbol shorter than the symbol size as a new symbol of the bytes it has, as older
+ * versions do, and its bytes are read only while the control bit is left after them. Under the block rule header it is
+ * coded padded with 0 bytes to the full size instead, and the control bit ending the stream is followed by 3 bits giving
+ * the number of padding bytes. A stream without padding ends at the control bit, the 0 bits filling its last byte read
+ * as no padding.
  */
 public class AdaptiveHuffmanEncoderDecoder implements Compressor 
 {
 	private static final boolean ONE_BIT = true;
 	private static final boolean ZERO_BIT = false;
 	private static final int numOfBitsForSymbolSize = 4;
+	private static final int numOfBitsForPadding = 3;
+	// a symbol size of 0 never appears in the legacy header, it marks a header written for the block update rule
+	private static final int blockRuleHeaderEscape = 0;
+	// the first byte of the length prefixed header is 0, which neither the legacy nor the block rule header starts with
+	private static final int headerMagic = 0x00414853;
+	private static final int headerVersion = 2;
+	// the version of a header followed by the code length limit
+	private static final int headerVersionWithLimit = 3;
+	// the version of a header followed by the code length limit and the dictionary id
+	private static final int headerVersionWithDictionary = 4;
+	private static final int defaultAutoSymbolSizeSample = 1 << 22;
 	
 	private int symbolSize;
-	private int numberOfSymbols;
+	private long headerInputLength;		// input length read from the header, -1 for a stream ending with a control bit
+	private int headerCodeLengthLimit;	// code length limit read from the header, 0 for none
+	private SeedDictionary headerDictionary;	// dictionary the header asks for, null for none
+	private eUpdateRule headerUpdateRule;	// update rule read from the header, the one set is kept for compressing
+	private eTreeEngine treeEngine = eTreeEngine.array;
+	private eUpdateRule updateRule = eUpdateRule.block;
+	private int blockSize;
+	private ForkJoinPool pool = ForkJoinPool.commonPool();
+	private BlockCache blockCache;
+	private int codeLengthLimit;
+	private SeedDictionary dictionary;
+	private boolean autoSymbolSize;
+	private int autoSymbolSizeSample = defaultAutoSymbolSizeSample;
+	private CodecMetrics metrics;
+	
+	// the tree of the last call and what it was created for, reset and reused when the next call matches
+	private CodingTree tree;
+	private eTreeEngine treeCreatedEngine;
+	private eUpdateRule treeCreatedRule;
+	private int treeCreatedSymbolSize;
+	private SeedDictionary treeSeed;
+	
+	// the symbol last read by readSymbol, packed as by Symbol.toLong
+	private long decodedSymbol;
+	private int decodedLength;
+	
+	// reused by every call of the in-memory methods, created on the first one
+	private BufferByteSource bufferSource;
+	private BufferByteSink bufferSink;
+	private SymbolReader bufferSymbolReader;
+	private BitReader bufferBitReader;
+	private BitWriter bufferBitWriter;
 	
 	public AdaptiveHuffmanEncoderDecoder() 
 	{
@@ -36,368 +119,1353 @@ public class AdaptiveHuffmanEncoderDecoder implements Compressor
 	public AdaptiveHuffmanEncoderDecoder(int symbolSize) 
 	{
 		this.setSymbolSize(symbolSize);
-		this.numberOfSymbols = (int)Math.pow(2,(symbolSize * 8));
+	}
+	
+	public AdaptiveHuffmanEncoderDecoder(int symbolSize, eTreeEngine treeEngine) 
+	{
+		this(symbolSize);
+		this.setTreeEngine(treeEngine);
 	}
 
 	@Override
 	public void Compress(String[] input_names, String[] output_names) 
 	{
-		// init output and input streams
-		BinaryIn in = initBinaryIn(input_names);
-		BinaryOut out = initBinaryOut(output_names);
-
-		HuffmanTree huffmanTree = new HuffmanTree(this.numberOfSymbols);
-
-		Symbol currentSymbol = null;
-		Node currentNode = null;
-		boolean reachedEOF = false;
-		Stack<Boolean> currentPathToNode = null;
-
-		writeSymbolSizeHeader(out);
+		FileCodingEvent event = new FileCodingEvent();
+		event.begin();
 		
-		while (!in.isEmpty()) 
+		try 
 		{
-			currentSymbol = readNextSymbol(in);
-			currentNode = huffmanTree.containsSymbol(currentSymbol);
-
-			if (currentNode != null) 
-			{
-				// not a new symbol
-				currentPathToNode = currentNode.getPathToThisNode();
-				huffmanTree.updateTree(currentNode);
-			}
-			else 
-			{
-				// encounter a new symbol
-				currentPathToNode = huffmanTree.getCurrentNYT().getPathToThisNode();
-				huffmanTree.addNewSymbolNode(currentSymbol); 
-			}
-			
-			writePathToNode(out, currentPathToNode);
-			
-			if (currentNode == null) 
-			{
-				// write bytes if it was a new symbol
-				byte bytesToWrite[] = currentSymbol.getBytes();
-				out.write(bytesToWrite);
-			}
-			
-			if (!reachedEOF && !in.isEmpty())
-			{				
-				// write a '0' control bit after each code for a symbol
-				out.write(ZERO_BIT);
-			}
+			compressFile(input_names, output_names);
+		}
+		finally 
+		{
+			commitFileEvent(event, eCodecPhase.compress, input_names, output_names);
+		}
+	}
+	
+	private void compressFile(String[] input_names, String[] output_names) 
+	{
+		if (blockSize > 0) 
+		{
+			compressBlocks(input_names[0], output_names[0]);
+			return;
 		}
 		
-		// write finishing 1 bit
-		out.write(ONE_BIT);
+		if (autoSymbolSize) 
+		{
+			setSymbolSize(bestSymbolSize(readSample(input_names[0])));
+		}
+		
+		// init output and input streams
+		SymbolReader in = initSymbolReader(input_names);
+		BitWriter out = null;
 
 		try 
 		{
-			closeResources(in, out);
-		} 
-		catch (IOException e) 
+			out = initBitWriter(output_names);
+			encode(in, out, inputLength(input_names[0]));
+		}
+		finally 
 		{
-			e.printStackTrace();
+			closeResources(in, out);
 		}
 
 		System.out.println("[*] Finished compressing");
 	}
 
-	@Override
-	public void Decompress(String[] input_names, String[] output_names) 
+	/**
+	 * @param inputLength number of bytes {@code in} holds, the input must not change while it is compressed
+	 */
+	private void encode(SymbolReader in, BitWriter out, long inputLength) 
 	{
-		// init input and output streams and objects
-		BinaryIn in = initBinaryIn(input_names);
-		BinaryOut out = initBinaryOut(output_names);
+		CodingEvent event = new CodingEvent();
+		event.begin();
+		long startNanos = metrics != null ? System.nanoTime() : 0;
+		long startBits = out.getBitsWritten();
+		long encodedLength;
+		
+		if (updateRule == eUpdateRule.legacy) 
+		{
+			encodedLength = encodeWithControlBits(in, out);
+		}
+		else 
+		{
+			encodedLength = encodeLengthPrefixed(in, out, inputLength);
+		}
+		
+		endCoding(event, eCodecPhase.compress, tree, encodedLength, (out.getBitsWritten() - startBits + 7) / 8, startNanos);
+	}
 	
-		symbolSize = readSymbolSizeFromHeader(in);
-
-		System.out.println("[*] symbol size: " + symbolSize);
-		numberOfSymbols = calculateNumberOfSymbols();
+	/**
+	 * encode with the length prefixed header
+	 * @return number of bytes encoded
+	 */
+	private long encodeLengthPrefixed(SymbolReader in, BitWriter out, long inputLength) 
+	{
+		SeedDictionary seed = encodingDictionary();
+		CodingTree huffmanTree = obtainTree(codeLengthLimit, seed);
+		long encodedLength = 0;
 		
-		HuffmanTree huffmanTree = new HuffmanTree(this.numberOfSymbols);
-
-		Node root = huffmanTree.getRoot();
-		Node traverseNode = root;
-		Symbol currentSymbol = null;
-		String currentCode = "";
-		boolean reachedEOF = false;
+		writeHeader(out, inputLength, seed);
 		
-		while (!in.isEmpty()) 
+		try 
 		{
-			// read one symbol at a time, traverse the huffman tree
-			if (traverseNode == null) 
+			while (!in.isEmpty()) 
 			{
-				break;
-			}
-			
-			// read bits until you reach a leaf
-			if (traverseNode.isLeaf()) 
-			{
-				// new symbol
-				if (traverseNode.isNYT()) 
-				{	
-					currentSymbol = readNextSymbol(in);
-					currentCode = Converter.bytesToString(currentSymbol.getBytes());
-					huffmanTree.addNewSymbolNode(currentSymbol);
-				}
-
-				// not nyt - symbol already exists
-				else 
-				{
-					currentSymbol = traverseNode.getSymbol();
-					huffmanTree.updateTree(traverseNode);
-					currentCode = Converter.bytesToString(currentSymbol.getBytes());	
-				}
-				
-				writeCode(out, currentCode);
-				
-				reachedEOF = readControlBit(in);
-				
-				// reset traverseNode and currentCode
-				traverseNode = root;
-				currentCode = "";
-			}
-			
-			if (reachedEOF)
-			{
-				break;
+				writeSymbol(huffmanTree, out, in.readSymbol(), in.getLastSymbolLength());
+				encodedLength += in.getLastSymbolLength();
 			}
-
-			traverseNode = traverseHuffmanTree(in, traverseNode);
+		} 
+		catch (IOException e) 
+		{
+			throw new UncheckedIOException(e);
 		}
+		
+		if (encodedLength != inputLength) 
+		{
+			throw new UncheckedIOException(new IOException("Input changed while compressing: read " + encodedLength + " bytes instead of " + inputLength));
+		}
+		
+		return encodedLength;
+	}
+	
+	/**
+	 * encode in the format of the legacy update rule, which older versions read
+	 * @return number of bytes encoded
+	 */
+	private long encodeWithControlBits(SymbolReader in, BitWriter out) 
+	{
+		CodingTree huffmanTree = obtainTree(0, null);
+
+		long encodedLength = 0;
+		long currentSymbol = 0;
+		int currentSymbolLength = 0;
+		boolean wroteSymbols = false;
 
-		// close resources
+		writeSymbolSizeHeader(out);
+		
 		try 
 		{
-			closeResources(in, out);
+			while (!in.isEmpty()) 
+			{
+				currentSymbol = in.readSymbol();
+				currentSymbolLength = in.getLastSymbolLength();
+				// the shorter last symbol is coded as it is, as older versions read it
+				writeSymbol(huffmanTree, out, currentSymbol, currentSymbolLength);
+				encodedLength += currentSymbolLength;
+				wroteSymbols = true;
+				
+				if (!in.isEmpty())
+				{				
+					writeControlBit(out, false);
+				}
+			}
 		} 
 		catch (IOException e) 
 		{
-			e.printStackTrace();
+			throw new UncheckedIOException(e);
 		}
 		
-		System.out.println("[*] Finished decompressing");
+		writeEnd(out, wroteSymbols, 0);
+		
+		return encodedLength;
 	}
-
-	@Override
-	public byte[] CompressWithArray(String[] input_names, String[] output_names) 
+	
+	/**
+	 * write the code of a symbol and update the tree, followed by the raw bytes of the symbol if it was new
+	 * @param huffmanTree the tree of the stream being written
+	 * @param out BitWriter object for writing
+	 * @param symbol the bytes of the symbol packed as by {@link Symbol#toLong}
+	 * @param length number of bytes in the symbol
+	 */
+	void writeSymbol(CodingTree huffmanTree, BitWriter out, long symbol, int length) 
 	{
-		return null;
+		if (huffmanTree.encodeSymbol(symbol, length, out)) 
+		{
+			// write bytes if it was a new symbol
+			writeSymbolBytes(out, symbol, length);
+		}
 	}
-
-	@Override
-	public byte[] DecompressWithArray(String[] input_names, String[] output_names) 
+	
+	/**
+	 * write the control bit that follows the code of every symbol
+	 * @param out BitWriter object for writing
+	 * @param last {@code true} if the symbol was the last one, a '1' bit is written. otherwise a '0' bit is.
+	 */
+	void writeControlBit(BitWriter out, boolean last) 
 	{
-		return null;
+		out.writeBit(last ? ONE_BIT : ZERO_BIT);
 	}
 	
-	private void setSymbolSize(int size) 
+	/**
+	 * end the stream after its last symbol
+	 * @param out BitWriter object for writing
+	 * @param wroteSymbols {@code false} if the input was empty
+	 * @param padding number of 0 bytes the last symbol was padded with to the symbol size, always 0 for the legacy format
+	 * (see {@link #padsShortLastSymbol})
+	 */
+	void writeEnd(BitWriter out, boolean wroteSymbols, int padding) 
 	{
-		if (size < 1) 
+		// write finishing 1 bit. an empty input under the block rule header is byte aligned and needs none
+		if (wroteSymbols || updateRule == eUpdateRule.legacy) 
 		{
-			size = 1;
+			writeControlBit(out, true);
 		}
 		
-		this.symbolSize = size;
+		if (padding > 0) 
+		{
+			out.writeBits(padding, numOfBitsForPadding);
+		}
 	}
 	
 	/**
-	 * write out 4 bit header for symbol size
-	 * @param out BinaryOut object for writing
+	 * @return {@code true} if a stream ending with a control bit pads a last symbol shorter than the symbol size
+	 * to the full size, which only the block rule header does. the legacy format ends as older versions read it.
 	 */
-	private void writeSymbolSizeHeader(BinaryOut out)
+	boolean padsShortLastSymbol() 
 	{
-		String symbolSizeBits = Converter.getNBitsString(numOfBitsForSymbolSize, symbolSize);
-	
-		for (int i = 0; i < numOfBitsForSymbolSize; i++) 
-		{
-			if (symbolSizeBits.charAt(i) == '1')
-			{
-				out.write(ONE_BIT);
-			}
-			else
-			{
-				out.write(ZERO_BIT);
-			}
-		}
+		return updateRule == eUpdateRule.block;
 	}
 	
 	/**
-	 * read in 4 bit header to determine symbol size. <br>
-	 * @see #writeSymbolSizeHeader
-	 * @param in BinaryIn object to read from file
-	 * @return int representation of the symbol size
+	 * read what follows the control bit ending the stream
+	 * @param in BitReader object for reading
+	 * @param lastSymbolLength number of bytes decoded for the last symbol
+	 * @return number of padding bytes to drop from the end of the last symbol, 0 for the legacy format
 	 */
-	private int readSymbolSizeFromHeader(BinaryIn in) 
+	int readEndPadding(BitReader in, int lastSymbolLength) 
 	{
-		String first4bits = "";
-		for (int i = 0; i < numOfBitsForSymbolSize; i++) 
+		// a stream without padding ends at the control bit, the bits left of its last byte are 0
+		if (headerUpdateRule == eUpdateRule.legacy || !in.hasBits(numOfBitsForPadding)) 
 		{
-			boolean bit = in.readBoolean();
-			if (bit == ONE_BIT)
-			{
-				first4bits += "1";
-			}
-			else
-			{
-				first4bits += "0";
-			}
+			return 0;
 		}
 		
-		int result = Converter.stringToInt(first4bits);
-		return result;
+		return Math.min((int) in.readBits(numOfBitsForPadding), lastSymbolLength);
 	}
-	
-	private BinaryIn initBinaryIn(String[] input_names) {
-		FileInputStream inStream = null;
+
+	@Override
+	public void Decompress(String[] input_names, String[] output_names) 
+	{
+		FileCodingEvent event = new FileCodingEvent();
+		event.begin();
+		
 		try 
 		{
-			inStream = new FileInputStream(input_names[0]);
-		} 
-		catch (FileNotFoundException e) 
+			decompressFile(input_names, output_names);
+		}
+		finally 
 		{
-			System.err.println("File not found. Terminating");
-			e.printStackTrace();
-			System.exit(1);
+			commitFileEvent(event, eCodecPhase.decompress, input_names, output_names);
 		}
-
-		return new BinaryIn(inStream);
 	}
 	
-	private BinaryOut initBinaryOut(String[] output_names) 
+	private void decompressFile(String[] input_names, String[] output_names) 
 	{
-		FileOutputStream outStream = null;
+		if (isBlockContainer(input_names[0])) 
+		{
+			decompressBlocks(input_names[0], output_names[0]);
+			return;
+		}
+		
+		// init input and output streams and objects
+		BitReader in = initBitReader(input_names);
+		BitWriter out = null;
+
 		try 
 		{
-			outStream = new FileOutputStream(output_names[0]);
-		} 
-		catch (FileNotFoundException e) 
+			out = initBitWriter(output_names);
+			decode(in, out);
+		}
+		finally 
 		{
-			System.err.println("File not found. Terminating");
-			e.printStackTrace();
-			System.exit(1);
+			closeResources(in, out);
 		}
-
-		return new BinaryOut(outStream);
+		
+		System.out.println("[*] symbol size: " + symbolSize);
+		System.out.println("[*] Finished decompressing");
 	}
 
-	private void closeResources(BinaryIn in, BinaryOut out) throws IOException 
+	private void decode(BitReader in, BitWriter out) 
 	{
-		in.close();
-		out.close();
+		CodingEvent event = new CodingEvent();
+		event.begin();
+		long startNanos = metrics != null ? System.nanoTime() : 0;
+		long startBitsRead = in.getBitsRead();
+		long startBitsWritten = out.getBitsWritten();
+		
+		readHeader(in);
+		
+		if (headerInputLength < 0) 
+		{
+			decodeWithControlBits(in, out);
+		}
+		else 
+		{
+			decodeLengthPrefixed(in, out);
+		}
+		
+		endCoding(event, eCodecPhase.decompress, tree, (in.getBitsRead() - startBitsRead + 7) / 8, (out.getBitsWritten() - startBitsWritten) / 8, startNanos);
 	}
-
+	
 	/**
-	 * read next symbol from file, this method adjusts for symbols with size smaller than the symbol size,<br> 
-	 * so the {@code Symbol} contains only bytes read.
-	 * @param in BinaryIn object to read from file
-	 * @return {@code Symbol} object with the bytes actually read
+	 * decode a stream with the length prefixed header, after the header was read
 	 */
-	private Symbol readNextSymbol(BinaryIn in)
+	private void decodeLengthPrefixed(BitReader in, BitWriter out) 
 	{
-		byte currentBytes[] = new byte[symbolSize];
-		for (int i = 0; i < currentBytes.length; i++) 
+		CodingTree huffmanTree = obtainHeaderTree();
+		
+		for (long remaining = headerInputLength; remaining > 0; remaining -= symbolSize) 
 		{
-			try 
-			{
-				currentBytes[i] = in.readByte();
-			} 
-			catch(NoSuchElementException e) 
+			int length = (int) Math.min(symbolSize, remaining);
+			
+			if (!readSymbol(huffmanTree, in, length) || decodedLength < length) 
 			{
-				// EOF - handle case where the last bytes left are smaller than the symbol size
-				currentBytes = Arrays.copyOf(currentBytes, i);
-				
-				break;
+				throw truncated(headerInputLength - remaining);
 			}
+			
+			// the short last symbol may have been coded as a known one with the same value, its leading bytes are 0
+			out.writeBits(decodedSymbol, length * Byte.SIZE);
 		}
-		
-		return new Symbol(currentBytes);
 	}
 	
-	private void writePathToNode(BinaryOut out, Stack<Boolean> PathToNode)
+	/**
+	 * decode a stream of the legacy format, or one written by {@link AdaptiveHuffmanOutputStream}
+	 */
+	private void decodeWithControlBits(BitReader in, BitWriter out) 
 	{
-		while (!PathToNode.isEmpty()) 
+		CodingTree huffmanTree = obtainHeaderTree();
+
+		boolean reachedEOF = false;
+		
+		while (!in.isEmpty()) 
 		{
-			if (PathToNode.pop() == Node.LEFT_CHILD) 
+			// read one symbol at a time, traverse the huffman tree
+			if (!readSymbol(huffmanTree, in, symbolSize)) 
 			{
-				out.write(ZERO_BIT);
+				// EOF
+				break;
 			}
-			else 
+			
+			reachedEOF = readControlBit(in);
+			int padding = reachedEOF ? readEndPadding(in, decodedLength) : 0;
+			
+			out.writeBits(decodedSymbol >>> (Byte.SIZE * padding), (decodedLength - padding) * Byte.SIZE);
+			
+			if (reachedEOF)
 			{
-				out.write(ONE_BIT);
+				break;
 			}
 		}
 	}
 
-	private int calculateNumberOfSymbols() 
+	/**
+	 * read the header, setting the symbol size to the one the stream was written with.
+	 * the update rule, code length limit and dictionary of the stream are kept apart from the ones set for compressing,
+	 * see {@link #obtainHeaderTree}
+	 * @param in BitReader object for reading
+	 * @throws UncheckedIOException wrapping a {@link TruncatedInputException} if the input ends in the header
+	 */
+	void readHeader(BitReader in) 
 	{
-		return (int)Math.pow(2 , (symbolSize * 8));
+		headerInputLength = -1;
+		headerCodeLengthLimit = 0;
+		headerDictionary = null;
+		
+		if (!in.hasBits(Integer.SIZE) && startsWithPartialHeaderMagic(in)) 
+		{
+			throw truncatedHeader();
+		}
+		
+		if (in.peekBits(Integer.SIZE) == headerMagic) 
+		{
+			readLengthPrefixedHeader(in);
+			return;
+		}
+		
+		symbolSize = readSymbolSizeFromHeader(in);
+		headerUpdateRule = eUpdateRule.legacy;
+		
+		if (symbolSize == blockRuleHeaderEscape) 
+		{
+			headerUpdateRule = eUpdateRule.block;
+			symbolSize = readSymbolSizeFromHeader(in);
+		}
+		
+		if (in.isOverrun()) 
+		{
+			throw truncatedHeader();
+		}
+		
+		// the 4 bits hold up to 15, but a symbol has to fit the long it is packed into
+		if (symbolSize < 1 || symbolSize > Long.BYTES) 
+		{
+			throw new UncheckedIOException(new IOException("Corrupt stream header"));
+		}
 	}
-
-	private void writeCode(BinaryOut out, String currentCode) 
+	
+	/**
+	 * a 4 bit header never starts with a 0 byte, so an input shorter than the magic that starts like it
+	 * is a length prefixed header cut short
+	 * @return {@code true} if the whole bytes left in the input are the start of {@link #headerMagic}
+	 */
+	private static boolean startsWithPartialHeaderMagic(BitReader in) 
 	{
-		for (int i = 0; i < currentCode.length(); i++) 
+		int bytes = Integer.BYTES - 1;
+		while (bytes > 0 && !in.hasBits(bytes * Byte.SIZE)) 
 		{
-			if (currentCode.charAt(i) == '1') 
-			{
-				out.write(ONE_BIT);
-			} 
-			else 
-			{
-				out.write(ZERO_BIT);
-			}
+			bytes--;
 		}
+		
+		return bytes > 0 && in.peekBits(bytes * Byte.SIZE) == headerMagic >>> (Byte.SIZE * (Integer.BYTES - bytes));
 	}
 	
 	/**
-	 * this method determines whether or not EOF has been reached by reading the control bit after each symbol.
-	 * @param in BinaryIn object for reading
-	 * @return {@code true} if and only if the read bit is 1
+	 * @return the input length read from the header, -1 if the stream ends with a control bit instead
 	 */
-	private boolean readControlBit(BinaryIn in) 
+	long getHeaderInputLength() 
 	{
-		boolean controlBit = false;
-		try 
+		return headerInputLength;
+	}
+	
+	/**
+	 * decode the next symbol and update the tree. a new symbol is read raw and added to the tree. <br>
+	 * the symbol is left for {@link #getDecodedSymbol} / {@link #getDecodedLength}, so decoding allocates nothing.
+	 * @param huffmanTree the tree of the stream being read
+	 * @param in BitReader object for reading
+	 * @param newSymbolLength number of raw bytes of a new symbol, fewer are read if the input ends first
+	 * @return {@code false} if EOF was reached in the middle of the code of the symbol
+	 */
+	boolean readSymbol(CodingTree huffmanTree, BitReader in, int newSymbolLength) 
+	{
+		boolean known = huffmanTree.decodeSymbol(in);
+		
+		if (in.isOverrun()) 
+		{
+			return false;
+		}
+		
+		if (known) 
 		{
-			controlBit = in.readBoolean();
+			decodedSymbol = huffmanTree.getDecodedSymbol();
+			decodedLength = huffmanTree.getDecodedLength();
 		}
-		catch(NoSuchElementException e)
+		else 
 		{
-			
+			// new symbol
+			readNextSymbol(in, newSymbolLength);
+			huffmanTree.addNewSymbolNode(decodedSymbol, decodedLength);
 		}
 		
-		return controlBit;
+		return true;
+	}
+	
+	/**
+	 * @return the bytes of the symbol last read by {@link #readSymbol}, packed as by {@link Symbol#toLong}
+	 */
+	long getDecodedSymbol() 
+	{
+		return decodedSymbol;
 	}
 	
 	/**
-	 * traverse the huffman tree by reading a bit. 1 means go right, 0 means left
-	 * @param in BinaryIn object for reading
-	 * @param traverseNode the node to traverse the tree with
-	 * @return {@code traverseNode} after having moved it along the appropriate path in the tree
+	 * @return number of bytes in the symbol last read by {@link #readSymbol}
+	 */
+	int getDecodedLength() 
+	{
+		return decodedLength;
+	}
+
+	/**
+	 * compress the input file into memory. {@code output_names} is not used, the compressed bytes are returned instead.
 	 */
-	private Node traverseHuffmanTree(BinaryIn in, Node traverseNode) 
+	@Override
+	public byte[] CompressWithArray(String[] input_names, String[] output_names) 
 	{
-		boolean currentBit;
-		// traverse the tree
+		if (autoSymbolSize) 
+		{
+			setSymbolSize(bestSymbolSize(readSample(input_names[0])));
+		}
+		
+		SymbolReader in = initSymbolReader(input_names);
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		BitWriter out = new BitWriter(bytes);
+		
 		try 
 		{
-			currentBit = in.readBoolean();
-			if (currentBit == ONE_BIT) 
-			{
-				traverseNode = traverseNode.getRight();
-			} 
-			else 
-			{
-				traverseNode = traverseNode.getLeft();
-			}
-		} 
-		catch (NoSuchElementException ex) 
+			encode(in, out, inputLength(input_names[0]));
+		}
+		finally 
+		{
+			closeResources(in, out);
+		}
+		
+		return bytes.toByteArray();
+	}
+
+	/**
+	 * decompress the input file into memory. {@code output_names} is not used, the decompressed bytes are returned instead.
+	 */
+	@Override
+	public byte[] DecompressWithArray(String[] input_names, String[] output_names) 
+	{
+		BitReader in = initBitReader(input_names);
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		BitWriter out = new BitWriter(bytes);
+		
+		try 
+		{
+			decode(in, out);
+		}
+		finally 
+		{
+			closeResources(in, out);
+		}
+		
+		return bytes.toByteArray();
+	}
+	
+	/**
+	 * decompress only the bytes {@code offset} to {@code offset + length} of the original input of a compressed file. <br>
+	 * of a block container only the blocks overlapping the range are decoded, or taken from the block cache
+	 * (see {@link #setBlockCacheSize}). a single stream has to be decoded from its start up to the end of the range.
+	 * @param input_name the compressed file
+	 * @param offset offset of the range in the original input
+	 * @param length number of bytes in the range
+	 * @return the bytes of the range
+	 * @throws IndexOutOfBoundsException if the range is not inside the original input
+	 */
+	public byte[] decompressRange(String input_name, long offset, int length) 
+	{
+		Path path = Path.of(input_name);
+		
+		try 
+		{
+			if (BlockContainer.isContainer(path)) 
+			{
+				return decompressBlocksRange(path, offset, length);
+			}
+			
+			return decompressStreamRange(path, offset, length);
+		} 
+		catch (IOException e) 
+		{
+			throw new UncheckedIOException(e);
+		}
+	}
+	
+	private byte[] decompressBlocksRange(Path path, long offset, int length) throws IOException 
+	{
+		try (FileChannel in = FileChannel.open(path, StandardOpenOption.READ)) 
+		{
+			BlockCache.Key fileKey = blockCache != null ? BlockCache.keyOf(path, in, 0) : null;
+			BlockIndex index = fileKey != null ? blockCache.getIndex(fileKey) : null;
+			
+			if (index == null) 
+			{
+				index = BlockIndex.read(in);
+				
+				if (fileKey != null) 
+				{
+					blockCache.putIndex(fileKey, index);
+				}
+			}
+			
+			checkRange(offset, length, index.getInputLength());
+			
+			BlockContainer container = new BlockContainer(this, pool);
+			byte range[] = new byte[length];
+			int copied = 0;
+			
+			for (int block = length > 0 ? index.findBlock(offset) : 0; copied < length; block++) 
+			{
+				byte blockBytes[] = fileKey != null ? blockCache.getBlock(fileKey.ofBlock(block)) : null;
+				
+				if (blockBytes == null) 
+				{
+					blockBytes = container.readBlock(in, index, block);
+					
+					if (fileKey != null) 
+					{
+						blockCache.putBlock(fileKey.ofBlock(block), blockBytes);
+					}
+				}
+				
+				int from = (int) (offset + copied - index.getOriginalOffset(block));
+				int chunk = Math.min(length - copied, blockBytes.length - from);
+				System.arraycopy(blockBytes, from, range, copied, chunk);
+				copied += chunk;
+			}
+			
+			return range;
+		}
+	}
+	
+	private byte[] decompressStreamRange(Path path, long offset, int length) throws IOException 
+	{
+		checkRange(offset, length, Long.MAX_VALUE);
+		
+		try (InputStream in = new AdaptiveHuffmanInputStream(Files.newInputStream(path), copySettings())) 
+		{
+			in.skipNBytes(offset);
+			byte range[] = in.readNBytes(length);
+			
+			if (range.length < length) 
+			{
+				throw new EOFException();
+			}
+			
+			return range;
+		} 
+		catch (EOFException e) 
+		{
+			throw new IndexOutOfBoundsException("Range " + offset + " + " + length + " is past the end of the input");
+		}
+	}
+	
+	private void checkRange(long offset, int length, long inputLength) 
+	{
+		if (offset < 0 || length < 0 || offset > inputLength - length) 
+		{
+			throw new IndexOutOfBoundsException("Range " + offset + " + " + length + " is out of an input of " + inputLength + " bytes");
+		}
+	}
+	
+	/**
+	 * compress a byte array into a new one
+	 * @param input the bytes to compress
+	 * @return the compressed bytes
+	 */
+	public byte[] compress(byte[] input) 
+	{
+		if (autoSymbolSize) 
+		{
+			setSymbolSize(bestSymbolSize(ByteBuffer.wrap(input, 0, Math.min(input.length, autoSymbolSizeSample))));
+		}
+		
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		BitWriter out = new BitWriter(bytes);
+		
+		encode(new SymbolReader(ByteSource.of(ByteBuffer.wrap(input)), symbolSize), out, input.length);
+		out.flush();
+		
+		return bytes.toByteArray();
+	}
+	
+	/**
+	 * decompress a byte array into a new one
+	 * @param input the compressed bytes
+	 * @return the decompressed bytes
+	 */
+	public byte[] decompress(byte[] input) 
+	{
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		BitWriter out = new BitWriter(bytes);
+		
+		decode(new BitReader(ByteSource.of(ByteBuffer.wrap(input))), out);
+		out.flush();
+		
+		return bytes.toByteArray();
+	}
+	
+	/**
+	 * compress the remaining bytes of {@code input} into {@code output}, starting at its position. <br>
+	 * the position of {@code input} is advanced to its limit and the position of {@code output} past the bytes written.
+	 * the tree, readers and writers are kept between calls, so repeated calls allocate nothing.
+	 * @param input the bytes to compress
+	 * @param output the buffer to write the compressed bytes into
+	 * @return the number of bytes written
+	 * @throws BufferOverflowException if {@code output} is too small, its contents are then undefined
+	 */
+	public int compress(ByteBuffer input, ByteBuffer output) 
+	{
+		initBufferIO(input, output);
+		int start = output.position();
+		
+		bufferSymbolReader.reset(symbolSize);
+		encode(bufferSymbolReader, bufferBitWriter, input.remaining());
+		bufferBitWriter.flush();
+		
+		return output.position() - start;
+	}
+	
+	/**
+	 * decompress the remaining bytes of {@code input} into {@code output}, starting at its position. <br>
+	 * the position of {@code input} is advanced to its limit and the position of {@code output} past the bytes written.
+	 * the tree, readers and writers are kept between calls, so repeated calls allocate no buffers.
+	 * @param input the compressed bytes
+	 * @param output the buffer to write the decompressed bytes into
+	 * @return the number of bytes written
+	 * @throws BufferOverflowException if {@code output} is too small, its contents are then undefined
+	 */
+	public int decompress(ByteBuffer input, ByteBuffer output) 
+	{
+		initBufferIO(input, output);
+		int start = output.position();
+		
+		bufferBitReader.reset();
+		decode(bufferBitReader, bufferBitWriter);
+		bufferBitWriter.flush();
+		
+		return output.position() - start;
+	}
+	
+	/**
+	 * select the huffman tree implementation. all engines produce the same output.
+	 * @param treeEngine the engine to use for the next compression / decompression
+	 */
+	public void setTreeEngine(eTreeEngine treeEngine) 
+	{
+		this.treeEngine = treeEngine;
+	}
+	
+	/**
+	 * select the tree update rule used for compression. decompression takes it from the header. <br>
+	 * use {@link eUpdateRule#legacy} to write files readable by older versions of the program.
+	 * @param updateRule the update rule for the next compression
+	 */
+	public void setUpdateRule(eUpdateRule updateRule) 
+	{
+		this.updateRule = updateRule;
+	}
+	
+	/**
+	 * compress files into the chunked container: the input is split into blocks that are compressed
+	 * independently, each with its own tree, on the pool set by {@link #setPool}.
+	 * @param blockSize input bytes per block (rounded down to a multiple of the symbol size, or of 840 with
+	 * automatic symbol sizes), 0 for a single stream
+	 */
+	public void setBlockSize(int blockSize) 
+	{
+		this.blockSize = blockSize;
+	}
+	
+	/**
+	 * @param pool the pool to compress and decompress blocks on, the common pool by default
+	 */
+	public void setPool(ForkJoinPool pool) 
+	{
+		this.pool = pool;
+	}
+	
+	/**
+	 * keep recently decompressed container blocks in memory, so {@link #decompressRange} serves repeated reads of
+	 * the same blocks without decoding them again.
+	 * @param blocks number of blocks to keep, 0 to keep none (the default)
+	 */
+	public void setBlockCacheSize(int blocks) 
+	{
+		blockCache = blocks > 0 ? new BlockCache(blocks) : null;
+	}
+	
+	/**
+	 * bound the length of the codes of streams compressed with the block update rule: the weights of the tree are
+	 * halved whenever it could grow a longer code, which also lets it follow statistics that change along the input.
+	 * the limit is written in the header, decompression takes it from there. <br>
+	 * the legacy update rule and {@link AdaptiveHuffmanOutputStream} code without a limit.
+	 * @param limit the longest code allowed, 1 to {@value ArrayHuffmanTree#MAX_CODE_LENGTH_LIMIT}, or 0 for no limit (the default)
+	 * @throws IllegalArgumentException if the limit is out of range
+	 */
+	public void setCodeLengthLimit(int limit) 
+	{
+		if (limit < 0 || limit > ArrayHuffmanTree.MAX_CODE_LENGTH_LIMIT) 
+		{
+			throw new IllegalArgumentException("Code length limit " + limit + " is not between 1 and " + ArrayHuffmanTree.MAX_CODE_LENGTH_LIMIT);
+		}
+		
+		this.codeLengthLimit = limit;
+	}
+	
+	/**
+	 * seed the tree of every stream compressed with the block update rule, so the symbols of the dictionary are coded
+	 * from their first appearance instead of as new ones. the symbol size is set to the one of the dictionary, which is
+	 * only used while they match. the header gives the id of the dictionary,
+	 * and decompressing the stream takes a codec with the same one set. <br>
+	 * the legacy update rule and {@link AdaptiveHuffmanOutputStream} code without a dictionary.
+	 * @param dictionary the dictionary to compress and decompress with, or {@code null} for none (the default)
+	 */
+	public void setDictionary(SeedDictionary dictionary) 
+	{
+		this.dictionary = dictionary;
+		
+		if (dictionary != null) 
+		{
+			setSymbolSize(dictionary.getSymbolSize());
+		}
+	}
+	
+	/**
+	 * @return the dictionary to seed the tree of the next compressed stream with, null if there is none for its symbol size
+	 */
+	private SeedDictionary encodingDictionary() 
+	{
+		return dictionary != null && dictionary.getSymbolSize() == symbolSize ? dictionary : null;
+	}
+	
+	/**
+	 * choose the symbol size of every file and byte array compression by dry runs on the start of the input,
+	 * see {@link #bestSymbolSize}. {@link #getSymbolSize} gives the size chosen after a compression.
+	 * <br> in the chunked container every block gets its own symbol size instead, chosen by an estimate
+	 * on the thread that compresses it, see {@link #setBlockSize}.
+	 * @param auto {@code true} to choose the symbol size, {@code false} to use the one set (the default)
+	 */
+	public void setAutoSymbolSize(boolean auto) 
+	{
+		this.autoSymbolSize = auto;
+	}
+	
+	/**
+	 * @param bytes number of bytes from the start of the input the symbol size is chosen on, 4 MB by default.
+	 * inputs up to this size are measured whole.
+	 */
+	public void setAutoSymbolSizeSample(int bytes) 
+	{
+		this.autoSymbolSizeSample = bytes;
+	}
+	
+	boolean isAutoSymbolSize() 
+	{
+		return autoSymbolSize;
+	}
+	
+	/**
+	 * compress {@code sample} with every symbol size, concurrently on the pool set by {@link #setPool},
+	 * with the tree engine, update rule and code length limit of this codec. the output is counted and thrown away.
+	 * @param sample the bytes to measure, from their position to their limit. the buffer is not changed
+	 * @return the symbol size compressing {@code sample} into the fewest bits, the smallest one of a tie
+	 */
+	public int bestSymbolSize(ByteBuffer sample) 
+	{
+		List<ForkJoinTask<Long>> dryRuns = new ArrayList<ForkJoinTask<Long>>();
+		for (int size = 1; size <= Long.BYTES; size++) 
+		{
+			int candidate = size;
+			dryRuns.add(pool.submit(() -> compressedBits(sample.duplicate(), candidate)));
+		}
+		
+		int bestSize = 1;
+		long bestBits = Long.MAX_VALUE;
+		for (int size = 1; size <= Long.BYTES; size++) 
+		{
+			long bits = dryRuns.get(size - 1).join();
+			if (bits < bestBits) 
+			{
+				bestSize = size;
+				bestBits = bits;
+			}
+		}
+		
+		return bestSize;
+	}
+	
+	/**
+	 * @return the number of bits {@code input} compresses into with symbols of {@code size} bytes
+	 */
+	private long compressedBits(ByteBuffer input, int size) 
+	{
+		AdaptiveHuffmanEncoderDecoder dryRun = copySettings();
+		dryRun.setSymbolSize(size);
+		dryRun.setMetrics(null);
+		
+		BitWriter out = new BitWriter(ByteSink.discarding());
+		dryRun.encode(new SymbolReader(ByteSource.of(input), size), out, input.remaining());
+		
+		return out.getBitsWritten();
+	}
+	
+	/**
+	 * @return the first bytes of the input file, as many as the symbol size is chosen on
+	 */
+	private ByteBuffer readSample(String input_name) 
+	{
+		try (FileChannel in = FileChannel.open(Path.of(input_name), StandardOpenOption.READ)) 
+		{
+			return in.map(FileChannel.MapMode.READ_ONLY, 0, Math.min(in.size(), autoSymbolSizeSample));
+		} 
+		catch (IOException e) 
+		{
+			throw new UncheckedIOException("Could not open input file " + input_name, e);
+		}
+	}
+	
+	/**
+	 * record what every compression and decompression does into {@code metrics}, one sample per stream,
+	 * or per block of a container. the counts are kept in the tree and bit I/O while coding and added once at the end.
+	 * @param metrics the metrics to record into, possibly shared with other codecs, {@code null} to record nothing (the default)
+	 */
+	public void setMetrics(CodecMetrics metrics) 
+	{
+		this.metrics = metrics;
+	}
+	
+	/**
+	 * commit the flight recorder event of a coding, and record a sample of it if metrics are set
+	 * @param event the event begun when the coding started
+	 * @param huffmanTree the tree the coding used, its counts are those of the coding
+	 * @param startNanos {@link System#nanoTime} when the coding started, only read if metrics are set
+	 */
+	void endCoding(CodingEvent event, eCodecPhase phase, CodingTree huffmanTree, long bytesIn, long bytesOut, long startNanos) 
+	{
+		if (event.shouldCommit()) 
+		{
+			event.phase = phase.name();
+			event.symbolSize = symbolSize;
+			event.updateRule = (phase == eCodecPhase.decompress ? headerUpdateRule : updateRule).name();
+			event.treeEngine = treeEngine.name();
+			event.bytesIn = bytesIn;
+			event.bytesOut = bytesOut;
+			event.symbols = huffmanTree.getSymbolCount();
+			event.newSymbols = huffmanTree.getNewSymbolCount();
+			event.swaps = huffmanTree.getSwapCount();
+			event.maxCodeLength = huffmanTree.getMaxCodeLength();
+			event.commit();
+		}
+		
+		if (metrics == null) 
+		{
+			return;
+		}
+		
+		metrics.record(new CodecSample(phase, bytesIn, bytesOut, huffmanTree.getSymbolCount(), huffmanTree.getNewSymbolCount(),
+				huffmanTree.getSwapCount(), huffmanTree.getMaxCodeLength(), System.nanoTime() - startNanos));
+	}
+	
+	private void commitFileEvent(FileCodingEvent event, eCodecPhase phase, String[] input_names, String[] output_names) 
+	{
+		if (event.shouldCommit()) 
+		{
+			event.phase = phase.name();
+			event.input = input_names[0];
+			event.output = output_names[0];
+			event.blockSize = blockSize;
+			event.commit();
+		}
+	}
+	
+	/**
+	 * @return size in bytes of the symbols, the one read from the header after a decompression
+	 */
+	public int getSymbolSize() 
+	{
+		return symbolSize;
+	}
+	
+	void setSymbolSize(int size) 
+	{
+		if (size < 1) 
+		{
+			size = 1;
+		}
+		
+		// symbols are packed into a long
+		if (size > Long.BYTES) 
+		{
+			size = Long.BYTES;
+		}
+		
+		this.symbolSize = size;
+	}
+	
+	/**
+	 * write out 4 bit header for symbol size. <br>
+	 * for the block update rule the header is preceded by 4 zero bits.
+	 * @param out BitWriter object for writing
+	 */
+	void writeSymbolSizeHeader(BitWriter out)
+	{
+		if (updateRule == eUpdateRule.block) 
+		{
+			out.writeBits(blockRuleHeaderEscape, numOfBitsForSymbolSize);
+		}
+		
+		out.writeBits(symbolSize, numOfBitsForSymbolSize);
+	}
+	
+	/**
+	 * write the length prefixed header, see the layout in the class comment
+	 * @param out BitWriter object for writing
+	 * @param inputLength number of bytes to be compressed
+	 * @param seed the dictionary the tree is seeded with, null for none
+	 */
+	private void writeHeader(BitWriter out, long inputLength, SeedDictionary seed) 
+	{
+		int partialLength = (int) (inputLength % symbolSize);
+		
+		out.writeBits(headerMagic, Integer.SIZE);
+		out.writeByte(seed != null ? headerVersionWithDictionary : codeLengthLimit > 0 ? headerVersionWithLimit : headerVersion);
+		out.writeByte(symbolSize);
+		
+		for (; inputLength >= 0x80; inputLength >>>= 7) 
+		{
+			out.writeByte((int) inputLength | 0x80);
+		}
+		
+		out.writeByte((int) inputLength);
+		out.writeByte(partialLength);
+		
+		if (seed != null || codeLengthLimit > 0) 
+		{
+			out.writeByte(codeLengthLimit);
+		}
+		
+		if (seed != null) 
+		{
+			out.writeBits(seed.getId() & 0xffffffffL, Integer.SIZE);
+		}
+	}
+	
+	/**
+	 * read the length prefixed header, see the layout in the class comment.
+	 * sets the symbol size, the input length and the block update rule, which is the only one written with it, as the header's.
+	 * @param in BitReader object for reading, at the magic
+	 */
+	private void readLengthPrefixedHeader(BitReader in) 
+	{
+		in.skipBits(Integer.SIZE);
+		
+		int version = in.readByte();
+		symbolSize = in.readByte();
+		
+		long length = 0;
+		int shift = 0;
+		int b;
+		do 
+		{
+			// past the end of the input the bytes read as 0, which ends the length
+			b = in.readByte();
+			length |= (b & 0x7fL) << shift;
+			shift += 7;
+		} 
+		while (b < 0 && shift < Long.SIZE);
+		
+		int partialLength = in.readByte();
+		int limit = version == headerVersionWithLimit || version == headerVersionWithDictionary ? in.readByte() : 0;
+		int dictionaryId = version == headerVersionWithDictionary ? (int) in.readBits(Integer.SIZE) : 0;
+		
+		if (in.isOverrun()) 
+		{
+			throw truncatedHeader();
+		}
+		
+		if (version != headerVersion && version != headerVersionWithLimit && version != headerVersionWithDictionary) 
+		{
+			throw new UncheckedIOException(new IOException("Unsupported stream version " + version));
+		}
+		
+		if (symbolSize < 1 || symbolSize > Long.BYTES || length < 0 || b < 0 || partialLength != length % symbolSize ||
+			(version == headerVersionWithLimit && limit < 1) || limit < 0 || limit > ArrayHuffmanTree.MAX_CODE_LENGTH_LIMIT) 
+		{
+			throw new UncheckedIOException(new IOException("Corrupt stream header"));
+		}
+		
+		if (version == headerVersionWithDictionary) 
+		{
+			if (dictionary == null || dictionary.getId() != dictionaryId || dictionary.getSymbolSize() != symbolSize) 
+			{
+				throw new UncheckedIOException(new IOException(String.format("Stream was compressed with dictionary %08x, which is not set", dictionaryId)));
+			}
+			
+			headerDictionary = dictionary;
+		}
+		
+		headerInputLength = length;
+		headerCodeLengthLimit = limit;
+		headerUpdateRule = eUpdateRule.block;
+	}
+	
+	/**
+	 * @param decodedLength number of bytes decoded before the stream ended
+	 * @return the error for a stream ending before the input length of its header was decoded
+	 */
+	UncheckedIOException truncated(long decodedLength) 
+	{
+		return new UncheckedIOException(new TruncatedInputException("Stream ended after " + decodedLength + " of " + headerInputLength + " bytes"));
+	}
+	
+	private UncheckedIOException truncatedHeader() 
+	{
+		return new UncheckedIOException(new TruncatedInputException("Stream ended in its header"));
+	}
+	
+	/**
+	 * read in 4 bit header to determine symbol size. <br>
+	 * @see #writeSymbolSizeHeader
+	 * @param in BitReader object to read from file
+	 * @return int representation of the symbol size
+	 */
+	private int readSymbolSizeFromHeader(BitReader in) 
+	{
+		return (int) in.readBits(numOfBitsForSymbolSize);
+	}
+	
+	private BitReader initBitReader(String[] input_names) 
+	{
+		return new BitReader(openInput(input_names[0]));
+	}
+	
+	private SymbolReader initSymbolReader(String[] input_names) 
+	{
+		return new SymbolReader(openInput(input_names[0]), symbolSize);
+	}
+	
+	private long inputLength(String input_name) 
+	{
+		try 
+		{
+			return Files.size(Path.of(input_name));
+		} 
+		catch (IOException e) 
+		{
+			throw new UncheckedIOException("Could not open input file " + input_name, e);
+		}
+	}
+	
+	private BitWriter initBitWriter(String[] output_names) 
+	{
+		try 
+		{
+			return new BitWriter(ByteSink.open(Path.of(output_names[0])));
+		} 
+		catch (IOException e) 
+		{
+			throw new UncheckedIOException("Could not open output file " + output_names[0], e);
+		}
+	}
+
+	/**
+	 * @return a new codec with the same symbol size, tree engine, update rule, dictionary and metrics
+	 */
+	AdaptiveHuffmanEncoderDecoder copySettings() 
+	{
+		AdaptiveHuffmanEncoderDecoder copy = new AdaptiveHuffmanEncoderDecoder(symbolSize, treeEngine);
+		copy.setUpdateRule(updateRule);
+		copy.setCodeLengthLimit(codeLengthLimit);
+		copy.dictionary = dictionary;
+		copy.setMetrics(metrics);
+		
+		return copy;
+	}
+	
+	private void compressBlocks(String input_name, String output_name) 
+	{
+		try 
+		{
+			new BlockContainer(this, pool).compress(Path.of(input_name), Path.of(output_name), blockSize);
+		} 
+		catch (IOException e) 
+		{
+			throw new UncheckedIOException(e);
+		}
+		
+		System.out.println("[*] Finished compressing");
+	}
+	
+	private void decompressBlocks(String input_name, String output_name) 
+	{
+		try 
+		{
+			new BlockContainer(this, pool).decompress(Path.of(input_name), Path.of(output_name));
+		} 
+		catch (IOException e) 
+		{
+			throw new UncheckedIOException(e);
+		}
+		
+		System.out.println("[*] Finished decompressing");
+	}
+	
+	private boolean isBlockContainer(String input_name) 
+	{
+		try 
+		{
+			return BlockContainer.isContainer(Path.of(input_name));
+		} 
+		catch (IOException e) 
+		{
+			throw new UncheckedIOException("Could not open input file " + input_name, e);
+		}
+	}
+	
+	/**
+	 * point the reused source and sink at the buffers of an in-memory call, creating them and the readers and writer on the first call
+	 */
+	private void initBufferIO(ByteBuffer input, ByteBuffer output) 
+	{
+		if (bufferSource == null) 
+		{
+			bufferSource = new BufferByteSource();
+			bufferSink = new BufferByteSink();
+			bufferSymbolReader = new SymbolReader(bufferSource, symbolSize);
+			bufferBitReader = new BitReader(bufferSource);
+			bufferBitWriter = new BitWriter(bufferSink);
+		}
+		
+		bufferSource.setInput(input);
+		bufferSink.setOutput(output);
+		bufferBitWriter.reset();
+	}
+
+	private ByteSource openInput(String input_name) 
+	{
+		try 
+		{
+			return ByteSource.map(Path.of(input_name));
+		} 
+		catch (IOException e) 
+		{
+			throw new UncheckedIOException("Could not open input file " + input_name, e);
+		}
+	}
+
+	/**
+	 * close the input and, if it was opened, the output. the output is flushed first.
+	 */
+	private void closeResources(BitReader in, BitWriter out) 
+	{
+		try 
+		{
+			if (out != null) 
+			{
+				out.close();
+			}
+		}
+		finally 
+		{
+			in.close();
+		}
+	}
+
+	private void closeResources(SymbolReader in, BitWriter out) 
+	{
+		try 
+		{
+			if (out != null) 
+			{
+				out.close();
+			}
+		}
+		finally 
+		{
+			try 
+			{
+				in.close();
+			} 
+			catch (IOException e) 
+			{
+				throw new UncheckedIOException(e);
+			}
+		}
+	}
+
+	/**
+	 * read the raw bytes of a new symbol into {@code decodedSymbol}, this method adjusts for symbols with size
+	 * smaller than the symbol size,<br> so {@code decodedLength} counts only the bytes read.
+	 * @param in BitReader object to read from file
+	 * @param length number of bytes to read
+	 */
+	private void readNextSymbol(BitReader in, int length)
+	{
+		decodedSymbol = 0;
+		decodedLength = 0;
+		
+		// a stream ending with a control bit has one after every symbol, so a byte is only read if the bit is left after it.
+		// otherwise the end bit and the 0 bits filling the last byte read as one more byte of a short last symbol
+		int bitsPerByte = headerInputLength < 0 ? Byte.SIZE + 1 : Byte.SIZE;
+		
+		// EOF - handle case where the last bytes left are smaller than the symbol size
+		for (; decodedLength < length && in.hasBits(bitsPerByte); decodedLength++) 
+		{
+			decodedSymbol = decodedSymbol << Byte.SIZE | (in.readByte() & 0xff);
+		}
+	}
+	
+	/**
+	 * write the raw bytes of a symbol, first byte first
+	 * @param out BitWriter object for writing
+	 * @param symbol the bytes of the symbol packed as by {@link Symbol#toLong}
+	 * @param length number of bytes in the symbol
+	 */
+	private void writeSymbolBytes(BitWriter out, long symbol, int length) 
+	{
+		out.writeBits(symbol, 8 * length);
+	}
+	
+	/**
+	 * this method determines whether or not EOF has been reached by reading the control bit after each symbol.
+	 * @param in BitReader object for reading
+	 * @return {@code true} if and only if the read bit is 1
+	 */
+	boolean readControlBit(BitReader in) 
+	{
+		return in.hasBits(1) && in.readBit() == ONE_BIT;
+	}
+	
+	/**
+	 * get an empty huffman tree to compress with, for the current engine, update rule and symbol size,
+	 * or one seeded with a dictionary.
+	 * @param limit the code length limit to code with, 0 for none
+	 * @param seed the dictionary to seed the tree with, null for none
+	 * @return the empty or seeded tree
+	 */
+	CodingTree obtainTree(int limit, SeedDictionary seed) 
+	{
+		return obtainTree(updateRule, limit, seed);
+	}
+	
+	/**
+	 * get the tree to decompress the stream whose header was just read with: of the update rule, code length limit
+	 * and dictionary of the header
+	 * @return the empty or seeded tree
+	 */
+	CodingTree obtainHeaderTree() 
+	{
+		return obtainTree(headerUpdateRule, headerCodeLengthLimit, headerDictionary);
+	}
+	
+	/**
+	 * the tree of the previous call is reset and reused if it was created for the same engine, update rule and symbol size.
+	 */
+	private CodingTree obtainTree(eUpdateRule rule, int limit, SeedDictionary seed) 
+	{
+		if (tree == null || treeCreatedEngine != treeEngine || treeCreatedRule != rule || treeCreatedSymbolSize != symbolSize) 
+		{
+			tree = createTree(rule);
+			treeCreatedEngine = treeEngine;
+			treeCreatedRule = rule;
+			treeCreatedSymbolSize = symbolSize;
+			treeSeed = null;
+		}
+		
+		// set before the seed, which is scaled to the limit
+		tree.setCodeLengthLimit(limit);
+		
+		// setting the seed resets the tree to it
+		if (seed != treeSeed) 
+		{
+			tree.setSeed(seed == null ? null : seed.getSymbols(), seed == null ? null : seed.getWeights());
+			treeSeed = seed;
+		}
+		else 
+		{
+			tree.reset();
+		}
+		
+		return tree;
+	}
+	
+	/**
+	 * create an empty huffman tree of the selected engine. <br>
+	 * the node engine only implements the legacy update rule, the array engine is used for the block rule regardless.
+	 * @param rule the update rule of the tree
+	 * @return the new tree
+	 */
+	private CodingTree createTree(eUpdateRule rule) 
+	{
+		if (treeEngine == eTreeEngine.node && rule == eUpdateRule.legacy) 
 		{
-			// EOF
+			return new HuffmanTree();
 		}
 		
-		return traverseNode;
+		return new ArrayHuffmanTree(rule, symbolSize);
 	}
 }
@@ -0,0 +1,222 @@
+package encoder_decoder;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+
+import BinaryIO.BitReader;
+import tree_utils.CodingTree;
+
+/**
+ * An input stream decompressing another stream written in the format of {@link AdaptiveHuffmanEncoderDecoder}. <br>
+ * Symbols are decoded, and the tree updated, only as the bytes are read, so the memory used
+ * is the tree and a fixed size buffer however long the stream is. <br>
+ * The underlying stream is read ahead in large blocks, bytes following the compressed data in it are consumed as well.
+ * I/O errors of the underlying stream are thrown as {@link IOException},
+ * a compressed stream ending before the length its header gives as {@link BinaryIO.TruncatedInputException}.
+ */
+public class AdaptiveHuffmanInputStream extends InputStream
+{
+	private AdaptiveHuffmanEncoderDecoder codec;
+	private BitReader in;
+	private CodingTree huffmanTree;
+
+	private long currentSymbol;	// bytes of the symbol last decoded, packed as by Symbol.toLong
+	private int currentLength;
+	private int currentPosition;
+	private boolean reachedEOF;
+	private long remainingLength;	// bytes left to decode when the header gives the input length
+	private long bytesOut;
+	private long startNanos = System.nanoTime();
+	private CodingEvent event = new CodingEvent();
+
+	/**
+	 * @param in the stream to read the compressed bytes from
+	 */
+	public AdaptiveHuffmanInputStream(InputStream in) throws IOException
+	{
+		this(in, new AdaptiveHuffmanEncoderDecoder());
+	}
+
+	/**
+	 * @param in the stream to read the compressed bytes from
+	 * @param codec the codec with the tree engine to decode with. it must not be used while the stream is open
+	 */
+	public AdaptiveHuffmanInputStream(InputStream in, AdaptiveHuffmanEncoderDecoder codec) throws IOException
+	{
+		this.codec = codec;
+		event.begin();
+		this.in = new BitReader(in);
+
+		try
+		{
+			codec.readHeader(this.in);
+			remainingLength = codec.getHeaderInputLength();
+		}
+		catch (UncheckedIOException e)
+		{
+			throw e.getCause();
+		}
+
+		this.huffmanTree = codec.obtainHeaderTree();
+	}
+
+	@Override
+	public int read() throws IOException
+	{
+		// a symbol may have no bytes, when the input ended right after a new symbol was announced
+		while (currentPosition == currentLength)
+		{
+			if (!readNextSymbol())
+			{
+				return -1;
+			}
+		}
+
+		return nextByte();
+	}
+
+	@Override
+	public int read(byte b[], int off, int len) throws IOException
+	{
+		if (len == 0)
+		{
+			return 0;
+		}
+
+		int read = 0;
+		while (read < len)
+		{
+			if (currentPosition == currentLength && !readNextSymbol())
+			{
+				break;
+			}
+
+			for (int end = Math.min(len, read + currentLength - currentPosition); read < end; read++)
+			{
+				b[off + read] = (byte) nextByte();
+			}
+		}
+
+		return read == 0 ? -1 : read;
+	}
+
+	/**
+	 * @return the number of bytes left of the symbol last decoded
+	 */
+	@Override
+	public int available()
+	{
+		return currentLength - currentPosition;
+	}
+
+	/**
+	 * @return the next byte of the symbol last decoded
+	 */
+	private int nextByte()
+	{
+		return (int) (currentSymbol >>> (Byte.SIZE * (currentLength - 1 - currentPosition++))) & 0xff;
+	}
+
+	@Override
+	public void close() throws IOException
+	{
+		try
+		{
+			in.close();
+		}
+		catch (UncheckedIOException e)
+		{
+			throw e.getCause();
+		}
+	}
+
+	/**
+	 * decode the next symbol into {@code currentSymbol}
+	 * @return {@code false} if and only if the end of the compressed data was reached
+	 */
+	private boolean readNextSymbol() throws IOException
+	{
+		if (reachedEOF)
+		{
+			return false;
+		}
+
+		try
+		{
+			if (remainingLength >= 0)
+			{
+				readNextSymbolOfLength();
+			}
+			else
+			{
+				readNextSymbolWithControlBit();
+			}
+		}
+		catch (UncheckedIOException e)
+		{
+			throw e.getCause();
+		}
+
+		if (reachedEOF)
+		{
+			codec.endCoding(event, eCodecPhase.decompress, huffmanTree, (in.getBitsRead() + 7) / 8, bytesOut, startNanos);
+		}
+
+		return currentPosition < currentLength || !reachedEOF;
+	}
+
+	/**
+	 * decode the next symbol of a stream ending with a control bit
+	 */
+	private void readNextSymbolWithControlBit()
+	{
+		if (in.isEmpty() || !codec.readSymbol(huffmanTree, in, codec.getSymbolSize()))
+		{
+			reachedEOF = true;
+			return;
+		}
+
+		currentSymbol = codec.getDecodedSymbol();
+		currentLength = codec.getDecodedLength();
+		currentPosition = 0;
+		reachedEOF = codec.readControlBit(in);
+
+		if (reachedEOF)
+		{
+			int padding = codec.readEndPadding(in, currentLength);
+			currentSymbol >>>= Byte.SIZE * padding;
+			currentLength -= padding;
+		}
+
+		bytesOut += currentLength;
+	}
+
+	/**
+	 * decode the next symbol of a stream whose header gives the input length
+	 * @throws UncheckedIOException wrapping a {@link BinaryIO.TruncatedInputException} if the stream ends
+	 * before the input length was decoded
+	 */
+	private void readNextSymbolOfLength()
+	{
+		if (remainingLength == 0)
+		{
+			reachedEOF = true;
+			return;
+		}
+
+		int length = (int) Math.min(codec.getSymbolSize(), remainingLength);
+		if (!codec.readSymbol(huffmanTree, in, length) || codec.getDecodedLength() < length)
+		{
+			throw codec.truncated(codec.getHeaderInputLength() - remainingLength);
+		}
+
+		// the short last symbol may have been coded as a known one with the same value, its leading bytes are 0,
+		// only its last bytes are read
+		currentSymbol = codec.getDecodedSymbol();
+		currentLength = length;
+		currentPosition = 0;
+		bytesOut += length;
+		remainingLength -= length;
+	}
+}
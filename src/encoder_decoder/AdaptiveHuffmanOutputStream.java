@@ -0,0 +1,181 @@
+package encoder_decoder;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+
+import BinaryIO.BitWriter;
+import tree_utils.CodingTree;
+
+/**
+ * An output stream compressing the bytes written to it into another stream, in the format of {@link AdaptiveHuffmanEncoderDecoder}. <br>
+ * Every symbol is coded, and the tree updated, as soon as its last byte is written, so the memory used
+ * is the tree and a fixed size buffer however long the stream is. The length is not known up front,
+ * so the stream is written with a control bit after every symbol rather than with the length prefixed header. <br>
+ * The output is complete only after {@link #finish} or {@link #close}, which code a last shorter symbol if there is one.
+ * I/O errors of the underlying stream are thrown as {@link IOException}.
+ */
+public class AdaptiveHuffmanOutputStream extends OutputStream
+{
+	private AdaptiveHuffmanEncoderDecoder codec;
+	private BitWriter out;
+	private CodingTree huffmanTree;
+	private int symbolSize;
+
+	private long pendingSymbol;		// bytes of the symbol being collected, packed as by Symbol.toLong
+	private int pendingLength;
+	private boolean wroteSymbols;
+	private boolean finished;
+	private long bytesIn;
+	private long startNanos = System.nanoTime();
+	private CodingEvent event = new CodingEvent();
+
+	/**
+	 * @param out the stream to write the compressed bytes to
+	 * @param symbolSize size in bytes of the symbols to be coded
+	 */
+	public AdaptiveHuffmanOutputStream(OutputStream out, int symbolSize)
+	{
+		this(out, new AdaptiveHuffmanEncoderDecoder(symbolSize));
+	}
+
+	/**
+	 * @param out the stream to write the compressed bytes to
+	 * @param codec the codec whose symbol size, tree engine and update rule to code with. it must not be used while the stream is open
+	 */
+	public AdaptiveHuffmanOutputStream(OutputStream out, AdaptiveHuffmanEncoderDecoder codec)
+	{
+		this.codec = codec;
+		event.begin();
+		this.out = new BitWriter(out);
+		this.huffmanTree = codec.obtainTree(0, null);
+		this.symbolSize = codec.getSymbolSize();
+
+		codec.writeSymbolSizeHeader(this.out);
+	}
+
+	@Override
+	public void write(int b) throws IOException
+	{
+		if (finished)
+		{
+			throw new IOException("Stream finished");
+		}
+
+		pendingSymbol = (pendingSymbol << 8) | (b & 0xff);
+
+		if (++pendingLength == symbolSize)
+		{
+			writePendingSymbol();
+		}
+	}
+
+	@Override
+	public void write(byte b[], int off, int len) throws IOException
+	{
+		for (int i = off; i < off + len; i++)
+		{
+			write(b[i]);
+		}
+	}
+
+	/**
+	 * write out the complete bytes of the compressed output so far. <br>
+	 * the last symbol coded is not ended yet, and a symbol that is not complete is not coded,
+	 * so what is flushed can not be decompressed on its own.
+	 */
+	@Override
+	public void flush() throws IOException
+	{
+		try
+		{
+			out.flushCompleteBytes();
+		}
+		catch (UncheckedIOException e)
+		{
+			throw e.getCause();
+		}
+	}
+
+	/**
+	 * finish the compressed output without closing the underlying stream.
+	 * a symbol shorter than the symbol size is coded if it is pending.
+	 */
+	public void finish() throws IOException
+	{
+		if (finished)
+		{
+			return;
+		}
+
+		// under the block rule the shorter last symbol is padded to the symbol size, the end tells how many bytes to drop.
+		// the legacy format codes it as it is, as older versions read it
+		int padding = 0;
+		if (pendingLength > 0)
+		{
+			if (codec.padsShortLastSymbol())
+			{
+				padding = symbolSize - pendingLength;
+				pendingSymbol <<= Byte.SIZE * padding;
+				pendingLength = symbolSize;
+			}
+
+			writePendingSymbol();
+			bytesIn -= padding;
+		}
+
+		finished = true;
+
+		try
+		{
+			codec.writeEnd(out, wroteSymbols, padding);
+			codec.endCoding(event, eCodecPhase.compress, huffmanTree, bytesIn, (out.getBitsWritten() + 7) / 8, startNanos);
+			out.flush();
+		}
+		catch (UncheckedIOException e)
+		{
+			throw e.getCause();
+		}
+	}
+
+	@Override
+	public void close() throws IOException
+	{
+		finish();
+
+		try
+		{
+			out.close();
+		}
+		catch (UncheckedIOException e)
+		{
+			throw e.getCause();
+		}
+	}
+
+	/**
+	 * code the collected symbol. the control bit of the previous symbol is written only now,
+	 * when it is known that another symbol follows it.
+	 */
+	private void writePendingSymbol() throws IOException
+	{
+		try
+		{
+			if (wroteSymbols)
+			{
+				codec.writeControlBit(out, false);
+			}
+
+			codec.writeSymbol(huffmanTree, out, pendingSymbol, pendingLength);
+		}
+		catch (UncheckedIOException e)
+		{
+			throw e.getCause();
+		}
+
+		wroteSymbols = true;
+		bytesIn += pendingLength;
+		pendingSymbol = 0;
+		pendingLength = 0;
+	}
+}
@@ -0,0 +1,143 @@
+package encoder_decoder;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.zip.CRC32;
+
+/**
+ * Least recently used cache of decompressed container blocks, and of the indexes of the containers they came from. <br>
+ * Entries are keyed by the file's path, last modification time, size, and a checksum of the container header and of the
+ * trailer giving the index offset, so a container rewritten within the resolution of the modification time is not served
+ * stale blocks either.
+ */
+class BlockCache
+{
+	private static final int MAX_INDEXES = 16;
+
+	private int maxBlocks;
+	private LinkedHashMap<Key, byte[]> blocks;
+	private LinkedHashMap<Key, BlockIndex> indexes;
+
+	/**
+	 * @param maxBlocks number of decompressed blocks to keep
+	 */
+	BlockCache(int maxBlocks)
+	{
+		this.maxBlocks = maxBlocks;
+		this.blocks = new LinkedHashMap<Key, byte[]>(16, 0.75f, true)
+		{
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Key, byte[]> eldest)
+			{
+				return size() > BlockCache.this.maxBlocks;
+			}
+		};
+		this.indexes = new LinkedHashMap<Key, BlockIndex>(16, 0.75f, true)
+		{
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Key, BlockIndex> eldest)
+			{
+				return size() > MAX_INDEXES;
+			}
+		};
+	}
+
+	/**
+	 * @param in the file at {@code path}, open for reading
+	 * @return the key of block {@code block} of the file at {@code path}, as the file is now
+	 */
+	static Key keyOf(Path path, FileChannel in, int block) throws IOException
+	{
+		long size = in.size();
+		ByteBuffer header = ByteBuffer.allocate((int) Math.min(size, BlockContainer.HEADER_SIZE));
+		ByteBuffer trailer = ByteBuffer.allocate((int) Math.min(size, BlockContainer.TRAILER_SIZE));
+		BlockContainer.readFully(in, header, 0);
+		BlockContainer.readFully(in, trailer, size - trailer.capacity());
+
+		CRC32 checksum = new CRC32();
+		checksum.update(header.flip());
+		checksum.update(trailer.flip());
+
+		return new Key(path.toAbsolutePath().normalize(), Files.getLastModifiedTime(path).toMillis(), size, (int) checksum.getValue(), block);
+	}
+
+	/**
+	 * @return the decompressed block, {@code null} if it is not in the cache
+	 */
+	byte[] getBlock(Key key)
+	{
+		return blocks.get(key);
+	}
+
+	void putBlock(Key key, byte block[])
+	{
+		blocks.put(key, block);
+	}
+
+	/**
+	 * @param key the key of the file, with any block number
+	 * @return the index of the file, {@code null} if it is not in the cache
+	 */
+	BlockIndex getIndex(Key key)
+	{
+		return indexes.get(key.ofFile());
+	}
+
+	void putIndex(Key key, BlockIndex index)
+	{
+		indexes.put(key.ofFile(), index);
+	}
+
+	static final class Key
+	{
+		private final Path path;
+		private final long lastModified;
+		private final long size;
+		private final int checksum;
+		private final int block;
+
+		private Key(Path path, long lastModified, long size, int checksum, int block)
+		{
+			this.path = path;
+			this.lastModified = lastModified;
+			this.size = size;
+			this.checksum = checksum;
+			this.block = block;
+		}
+
+		Key ofBlock(int otherBlock)
+		{
+			return new Key(path, lastModified, size, checksum, otherBlock);
+		}
+
+		private Key ofFile()
+		{
+			return ofBlock(-1);
+		}
+
+		@Override
+		public boolean equals(Object other)
+		{
+			if (!(other instanceof Key))
+			{
+				return false;
+			}
+
+			Key key = (Key) other;
+			return block == key.block && lastModified == key.lastModified && size == key.size && checksum == key.checksum &&
+				path.equals(key.path);
+		}
+
+		@Override
+		public int hashCode()
+		{
+			return Objects.hash(path, lastModified, size, checksum, block);
+		}
+	}
+}
@@ -0,0 +1,469 @@
+package encoder_decoder;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * The chunked container format: the input is split into blocks of a fixed size, and each one is compressed on its own,
+ * with its own tree, as a complete stream of {@link AdaptiveHuffmanEncoderDecoder}. <br>
+ * The blocks are compressed concurrently on a {@link ForkJoinPool} and written in order, a few blocks ahead of the
+ * writer are in flight at a time so memory stays bounded. The index at the end of the container tells where each
+ * block is, so the blocks are decompressed concurrently too, each one straight to its place in the output file. <br>
+ * A block that coding would not make smaller, like a part of an already compressed file, is stored as it is instead,
+ * and copied from file to file by the channels on both ends without passing through the heap. <br>
+ * With automatic symbol sizes every block is coded with the symbol size {@link SymbolSizeEstimator} finds best for it,
+ * by the coder of the block, and the size is read back from the stream header of the block.
+ * Layout of a container, numbers are big endian:
+ * <pre>
+ * magic         4 bytes  0x00 'A' 'H' 'B'. a stream starts with 0x00 'A' 'H' 'S', or with a nonzero byte
+ * version       1 byte   1
+ * symbol size   1 byte   0 if each block has its own, given in the stream header of the block
+ * block size    4 bytes  input bytes in every block, the last one may be shorter
+ * input length  8 bytes
+ * blocks        the compressed blocks one after the other
+ * index         12 bytes per block: offset of the compressed block in the container (8 bytes), its input length (4 bytes)
+ *               with the high bit set for a stored block
+ * index offset  8 bytes
+ * block count   4 bytes
+ * </pre>
+ */
+class BlockContainer
+{
+	static final int MAGIC = 0x00414842;
+	static final byte VERSION = 1;
+	static final int STORED_FLAG = 0x80000000;
+	static final int HEADER_SIZE = 18;
+	static final int INDEX_ENTRY_SIZE = Long.BYTES + Integer.BYTES;
+	static final int TRAILER_SIZE = Long.BYTES + Integer.BYTES;
+	private static final int BLOCKS_IN_FLIGHT_PER_THREAD = 2;
+	// a block of single byte symbols is stored without coding when its entropy leaves less than this much to save
+	private static final double MIN_SAVING_ESTIMATE = 1.0 / 64;
+	// blocks with their own symbol sizes are a multiple of every size, so no block starts in the middle of a symbol
+	private static final int PER_BLOCK_SIZE_MULTIPLE = 840;
+
+	private AdaptiveHuffmanEncoderDecoder settings;
+	private ForkJoinPool pool;
+	private boolean symbolSizePerBlock;
+
+	// the coders not coding a block at the moment. there are only as many as blocks were coded at the same time,
+	// and they go with the container, so the pool threads keep nothing after the call
+	private ConcurrentLinkedQueue<Coder> idleCoders = new ConcurrentLinkedQueue<>();
+
+	/**
+	 * @param settings the codec whose symbol size, tree engine and update rule to code the blocks with,
+	 * the symbol size is chosen for each block if the codec chooses it automatically
+	 * @param pool the pool to code the blocks on
+	 */
+	BlockContainer(AdaptiveHuffmanEncoderDecoder settings, ForkJoinPool pool)
+	{
+		this.settings = settings;
+		this.pool = pool;
+		this.symbolSizePerBlock = settings.isAutoSymbolSize();
+	}
+
+	/**
+	 * @return {@code true} if and only if the file at {@code path} starts with the container magic
+	 */
+	static boolean isContainer(Path path) throws IOException
+	{
+		try (FileChannel in = FileChannel.open(path, StandardOpenOption.READ))
+		{
+			ByteBuffer magic = ByteBuffer.allocate(Integer.BYTES);
+			while (magic.hasRemaining() && in.read(magic) >= 0)
+			{
+			}
+
+			return !magic.hasRemaining() && magic.getInt(0) == MAGIC;
+		}
+	}
+
+	/**
+	 * @param blockSize input bytes per block, rounded down to a multiple of the symbol size,
+	 * or of every symbol size when each block has its own
+	 */
+	void compress(Path input, Path output, int blockSize) throws IOException
+	{
+		int symbolSize = symbolSizePerBlock ? 0 : settings.getSymbolSize();
+		int sizeMultiple = symbolSizePerBlock ? PER_BLOCK_SIZE_MULTIPLE : symbolSize;
+		int roundedBlockSize = Math.max(sizeMultiple, blockSize - blockSize % sizeMultiple);
+
+		try (FileChannel in = FileChannel.open(input, StandardOpenOption.READ);
+			 FileChannel out = FileChannel.open(output, StandardOpenOption.WRITE, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING))
+		{
+			long inputLength = in.size();
+			long blocks = (inputLength + roundedBlockSize - 1) / roundedBlockSize;
+			if (blocks > (Integer.MAX_VALUE - TRAILER_SIZE) / INDEX_ENTRY_SIZE)
+			{
+				throw new IOException("Input too large for block size " + roundedBlockSize);
+			}
+
+			int blockCount = (int) blocks;
+			ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+			header.putInt(MAGIC).put(VERSION).put((byte) symbolSize).putInt(roundedBlockSize).putLong(inputLength).flip();
+			writeFully(out, header);
+
+			ByteBuffer index = ByteBuffer.allocate(blockCount * INDEX_ENTRY_SIZE + TRAILER_SIZE);
+			ArrayDeque<ForkJoinTask<byte[]>> inFlight = new ArrayDeque<>();
+			int maxInFlight = pool.getParallelism() * BLOCKS_IN_FLIGHT_PER_THREAD;
+			int nextBlock = 0;
+
+			for (int written = 0; written < blockCount; written++)
+			{
+				while (nextBlock < blockCount && inFlight.size() < maxInFlight)
+				{
+					long offset = (long) nextBlock++ * roundedBlockSize;
+					int length = (int) Math.min(roundedBlockSize, inputLength - offset);
+					inFlight.add(pool.submit(() -> compressBlock(in, offset, length)));
+				}
+
+				byte compressed[] = inFlight.poll().join();
+				long originalOffset = (long) written * roundedBlockSize;
+				int length = (int) Math.min(roundedBlockSize, inputLength - originalOffset);
+
+				if (compressed == null)
+				{
+					index.putLong(out.position()).putInt(length | STORED_FLAG);
+					transferFully(in, originalOffset, length, out);
+				}
+				else
+				{
+					index.putLong(out.position()).putInt(length);
+					writeFully(out, ByteBuffer.wrap(compressed));
+				}
+			}
+
+			index.putLong(out.position()).putInt(blockCount).flip();
+			writeFully(out, index);
+		}
+	}
+
+	/**
+	 * decompress a container. the output file is sized up front and every block is decoded
+	 * on a pool thread and written at its offset.
+	 */
+	void decompress(Path input, Path output) throws IOException
+	{
+		try (FileChannel in = FileChannel.open(input, StandardOpenOption.READ);
+			 FileChannel out = FileChannel.open(output, StandardOpenOption.WRITE, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING))
+		{
+			BlockIndex index = BlockIndex.read(in);
+
+			if (index.getInputLength() > 0)
+			{
+				// preallocate, the blocks are then written in any order
+				writeFully(out, ByteBuffer.allocate(1), index.getInputLength() - 1);
+			}
+
+			List<ForkJoinTask<?>> blocks = new ArrayList<>();
+			for (int i = 0; i < index.getBlockCount(); i++)
+			{
+				int block = i;
+				if (!index.isStored(block))
+				{
+					blocks.add(pool.submit(() -> decompressBlock(in, out, index, block)));
+				}
+			}
+
+			// the pool threads read and write at given positions, so the channel positions are free for the copies
+			for (int i = 0; i < index.getBlockCount(); i++)
+			{
+				if (index.isStored(i))
+				{
+					out.position(index.getOriginalOffset(i));
+					transferFully(in, index.getCompressedOffset(i), index.getOriginalLength(i), out);
+				}
+			}
+
+			for (ForkJoinTask<?> block : blocks)
+			{
+				block.join();
+			}
+		}
+	}
+
+	/**
+	 * compress one block, on a pool thread
+	 * @return the compressed block, or {@code null} if it is to be stored
+	 */
+	private byte[] compressBlock(FileChannel in, long offset, int length)
+	{
+		Coder coder = takeCoder();
+
+		try
+		{
+			ByteBuffer block = coder.inputBuffer(length);
+			readFully(in, block, offset);
+			block.flip();
+
+			AdaptiveHuffmanEncoderDecoder codec = coder.codec;
+			if (symbolSizePerBlock)
+			{
+				codec.setSymbolSize(coder.estimator().bestSymbolSize(block));
+			}
+
+			if (codec.getSymbolSize() == 1 && entropySaving(block) < MIN_SAVING_ESTIMATE)
+			{
+				return null;
+			}
+
+			// coding stops as soon as it gets as large as the block
+			ByteBuffer output = coder.outputBuffer(length);
+			output.limit(length);
+
+			codec.compress(block, output);
+			return Arrays.copyOf(output.array(), output.position());
+		}
+		catch (BufferOverflowException e)
+		{
+			return null;
+		}
+		catch (IOException e)
+		{
+			throw new UncheckedIOException(e);
+		}
+		finally
+		{
+			idleCoders.add(coder);
+		}
+	}
+
+	/**
+	 * estimate what coding a block of single byte symbols could save from its order 0 entropy,
+	 * which no code of the bytes one at a time gets below while their statistics stay the same along the block.
+	 * @return the fraction of the block that could be saved, 0 for bytes that are evenly spread
+	 */
+	private static double entropySaving(ByteBuffer block)
+	{
+		int counts[] = new int[1 << Byte.SIZE];
+		for (int i = block.position(); i < block.limit(); i++)
+		{
+			counts[block.get(i) & 0xff]++;
+		}
+
+		double length = block.remaining();
+		double bits = 0;
+		for (int count : counts)
+		{
+			if (count > 0)
+			{
+				bits -= count * Math.log(count / length);
+			}
+		}
+
+		return 1 - bits / Math.log(2) / Byte.SIZE / length;
+	}
+
+	/**
+	 * decompress one block into its place in the output, on a pool thread
+	 */
+	private void decompressBlock(FileChannel in, FileChannel out, BlockIndex index, int block)
+	{
+		Coder coder = takeCoder();
+
+		try
+		{
+			writeFully(out, decodeBlock(coder, in, index, block), index.getOriginalOffset(block));
+		}
+		catch (IOException e)
+		{
+			throw new UncheckedIOException(e);
+		}
+		finally
+		{
+			idleCoders.add(coder);
+		}
+	}
+
+	/**
+	 * decompress one block into a new array
+	 * @return the original bytes of the block
+	 */
+	byte[] readBlock(FileChannel in, BlockIndex index, int block) throws IOException
+	{
+		Coder coder = takeCoder();
+
+		try
+		{
+			ByteBuffer decompressed = decodeBlock(coder, in, index, block);
+			byte bytes[] = new byte[decompressed.remaining()];
+			decompressed.get(bytes);
+
+			return bytes;
+		}
+		finally
+		{
+			idleCoders.add(coder);
+		}
+	}
+
+	/**
+	 * decompress one block into the output buffer of {@code coder}
+	 * @return the buffer, holding exactly the original bytes of the block
+	 */
+	private ByteBuffer decodeBlock(Coder coder, FileChannel in, BlockIndex index, int block) throws IOException
+	{
+		int originalLength = index.getOriginalLength(block);
+
+		if (index.isStored(block))
+		{
+			ByteBuffer stored = coder.outputBuffer(originalLength);
+			stored.limit(originalLength);
+			readFully(in, stored, index.getCompressedOffset(block));
+
+			return stored.flip();
+		}
+
+		ByteBuffer compressed = coder.inputBuffer(index.getCompressedSize(block));
+		ByteBuffer decompressed = coder.outputBuffer(originalLength);
+		decompressed.limit(originalLength);
+
+		readFully(in, compressed, index.getCompressedOffset(block));
+		compressed.flip();
+
+		try
+		{
+			coder.codec.decompress(compressed, decompressed);
+		}
+		catch (BufferOverflowException e)
+		{
+			throw new IOException("Corrupt container: block " + block + " decompressed to more than " + originalLength + " bytes");
+		}
+
+		if (decompressed.position() < originalLength)
+		{
+			throw new IOException("Corrupt container: block " + block + " decompressed to " + decompressed.position() + " bytes instead of " + originalLength);
+		}
+
+		decompressed.flip().limit(originalLength);
+		return decompressed;
+	}
+
+	/**
+	 * @return an idle coder, or a new one if every one is coding a block. it is to be given back to {@code idleCoders}
+	 */
+	private Coder takeCoder()
+	{
+		Coder coder = idleCoders.poll();
+		return coder != null ? coder : new Coder(settings.copySettings());
+	}
+
+	/**
+	 * What a block is coded with, kept for the next block: a codec, input and output buffers and a symbol size estimator.
+	 */
+	private static class Coder
+	{
+		private AdaptiveHuffmanEncoderDecoder codec;
+		private ByteBuffer input = ByteBuffer.allocate(0);
+		private ByteBuffer output = ByteBuffer.allocate(0);
+		private SymbolSizeEstimator estimator;
+
+		Coder(AdaptiveHuffmanEncoderDecoder codec)
+		{
+			this.codec = codec;
+		}
+
+		/**
+		 * @return the input buffer, cleared and limited to {@code length} bytes
+		 */
+		ByteBuffer inputBuffer(int length)
+		{
+			if (input.capacity() < length)
+			{
+				input = ByteBuffer.allocate(length);
+			}
+
+			input.clear().limit(length);
+			return input;
+		}
+
+		/**
+		 * @return the output buffer, cleared and with room for at least {@code length} bytes
+		 */
+		ByteBuffer outputBuffer(int length)
+		{
+			if (output.capacity() < length)
+			{
+				output = ByteBuffer.allocate(length);
+			}
+
+			output.clear();
+			return output;
+		}
+
+		/**
+		 * @return the symbol size estimator, created on the first call
+		 */
+		SymbolSizeEstimator estimator()
+		{
+			if (estimator == null)
+			{
+				estimator = new SymbolSizeEstimator();
+			}
+
+			return estimator;
+		}
+	}
+
+	/**
+	 * fill the remaining of {@code buffer} from the file, starting at {@code position}
+	 */
+	static void readFully(FileChannel in, ByteBuffer buffer, long position) throws IOException
+	{
+		while (buffer.hasRemaining())
+		{
+			int read = in.read(buffer, position);
+			if (read < 0)
+			{
+				throw new IOException("Corrupt container: file is truncated");
+			}
+
+			position += read;
+		}
+	}
+
+	/**
+	 * copy {@code count} bytes of {@code in} from {@code position} to the current position of {@code out}
+	 */
+	private static void transferFully(FileChannel in, long position, long count, FileChannel out) throws IOException
+	{
+		while (count > 0)
+		{
+			long transferred = in.transferTo(position, count, out);
+			if (transferred <= 0)
+			{
+				throw new IOException("File ended before " + count + " more bytes could be copied");
+			}
+
+			position += transferred;
+			count -= transferred;
+		}
+	}
+
+	private static void writeFully(FileChannel out, ByteBuffer buffer) throws IOException
+	{
+		while (buffer.hasRemaining())
+		{
+			out.write(buffer);
+		}
+	}
+
+	private static void writeFully(FileChannel out, ByteBuffer buffer, long position) throws IOException
+	{
+		while (buffer.hasRemaining())
+		{
+			position += out.write(buffer, position);
+		}
+	}
+}
@@ -0,0 +1,202 @@
+package encoder_decoder;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+
+/**
+ * Where every block of a {@link BlockContainer} is, in the container and in the original input,
+ * read from the index at the end of the container.
+ */
+class BlockIndex
+{
+	private int symbolSize;
+	private int blockSize;
+
+	// one entry per block and one more for the end, so the size of a block is the difference to the next entry
+	private long compressedOffsets[];
+	private long originalOffsets[];
+	private boolean stored[];
+
+	private BlockIndex(int symbolSize, int blockSize, int blockCount)
+	{
+		this.symbolSize = symbolSize;
+		this.blockSize = blockSize;
+		this.compressedOffsets = new long[blockCount + 1];
+		this.originalOffsets = new long[blockCount + 1];
+		this.stored = new boolean[blockCount];
+	}
+
+	/**
+	 * read and check the header and the index of a container
+	 * @param in the container file
+	 * @return the index of its blocks
+	 * @throws IOException if reading failed, or the file is not a container of a known version
+	 */
+	static BlockIndex read(FileChannel in) throws IOException
+	{
+		long fileSize = in.size();
+		if (fileSize < BlockContainer.HEADER_SIZE)
+		{
+			throw new IOException("Corrupt container: header is truncated");
+		}
+
+		ByteBuffer header = readAt(in, 0, BlockContainer.HEADER_SIZE);
+		if (header.getInt(0) != BlockContainer.MAGIC)
+		{
+			throw new IOException("Not a block container");
+		}
+
+		int symbolSize = header.get(5);
+		int blockSize = header.getInt(6);
+		long inputLength = header.getLong(10);
+
+		if (blockSize <= 0 || inputLength < 0)
+		{
+			throw new IOException("Corrupt container: invalid block size " + blockSize + " or input length " + inputLength);
+		}
+
+		if (header.get(4) != BlockContainer.VERSION)
+		{
+			throw new IOException("Unsupported block container version " + header.get(4));
+		}
+
+		return readTrailingIndex(in, symbolSize, blockSize, inputLength);
+	}
+
+	int getSymbolSize()
+	{
+		return symbolSize;
+	}
+
+	/**
+	 * @return the nominal number of input bytes in a block
+	 */
+	int getBlockSize()
+	{
+		return blockSize;
+	}
+
+	int getBlockCount()
+	{
+		return compressedOffsets.length - 1;
+	}
+
+	long getInputLength()
+	{
+		return originalOffsets[getBlockCount()];
+	}
+
+	long getCompressedOffset(int block)
+	{
+		return compressedOffsets[block];
+	}
+
+	int getCompressedSize(int block)
+	{
+		return (int) (compressedOffsets[block + 1] - compressedOffsets[block]);
+	}
+
+	long getOriginalOffset(int block)
+	{
+		return originalOffsets[block];
+	}
+
+	int getOriginalLength(int block)
+	{
+		return (int) (originalOffsets[block + 1] - originalOffsets[block]);
+	}
+
+	/**
+	 * @return {@code true} if and only if the block holds its original bytes as they are
+	 */
+	boolean isStored(int block)
+	{
+		return stored[block];
+	}
+
+	/**
+	 * @param originalOffset offset in the original input, between 0 and the input length (exclusive)
+	 * @return the block holding the byte at {@code originalOffset}
+	 */
+	int findBlock(long originalOffset)
+	{
+		int found = Arrays.binarySearch(originalOffsets, 0, getBlockCount(), originalOffset);
+
+		return found >= 0 ? found : -found - 2;
+	}
+
+	/**
+	 * the index follows the blocks, and the file ends with the offset of the index and the block count
+	 */
+	private static BlockIndex readTrailingIndex(FileChannel in, int symbolSize, int blockSize, long inputLength) throws IOException
+	{
+		long fileSize = in.size();
+		if (fileSize < BlockContainer.HEADER_SIZE + BlockContainer.TRAILER_SIZE)
+		{
+			throw new IOException("Corrupt container: index is truncated");
+		}
+
+		ByteBuffer trailer = readAt(in, fileSize - BlockContainer.TRAILER_SIZE, BlockContainer.TRAILER_SIZE);
+		long indexOffset = trailer.getLong(0);
+		int blockCount = trailer.getInt(Long.BYTES);
+
+		if (blockCount < 0 || indexOffset < BlockContainer.HEADER_SIZE ||
+			indexOffset + (long) blockCount * BlockContainer.INDEX_ENTRY_SIZE + BlockContainer.TRAILER_SIZE != fileSize)
+		{
+			throw new IOException("Corrupt container: invalid index");
+		}
+
+		ByteBuffer entries = readAt(in, indexOffset, blockCount * BlockContainer.INDEX_ENTRY_SIZE);
+		BlockIndex index = new BlockIndex(symbolSize, blockSize, blockCount);
+
+		for (int i = 0; i < blockCount; i++)
+		{
+			int entry = i * BlockContainer.INDEX_ENTRY_SIZE;
+			int originalLength = entries.getInt(entry + Long.BYTES);
+			index.stored[i] = (originalLength & BlockContainer.STORED_FLAG) != 0;
+			originalLength &= ~BlockContainer.STORED_FLAG;
+
+			index.compressedOffsets[i] = entries.getLong(entry);
+			index.originalOffsets[i + 1] = index.originalOffsets[i] + originalLength;
+		}
+
+		index.compressedOffsets[blockCount] = indexOffset;
+
+		if (index.getInputLength() != inputLength)
+		{
+			throw new IOException("Corrupt container: index does not add up to the input length");
+		}
+
+		index.check(fileSize);
+		return index;
+	}
+
+	/**
+	 * make sure the blocks are in order, inside the file, and no larger than a buffer can hold
+	 */
+	private void check(long fileSize) throws IOException
+	{
+		for (int i = 0; i < getBlockCount(); i++)
+		{
+			long compressedSize = compressedOffsets[i + 1] - compressedOffsets[i];
+			long originalLength = originalOffsets[i + 1] - originalOffsets[i];
+
+			if (compressedOffsets[i] < BlockContainer.HEADER_SIZE || compressedSize < 0 || compressedSize > Integer.MAX_VALUE ||
+				originalLength < 0 || originalLength > Integer.MAX_VALUE || compressedOffsets[i + 1] > fileSize ||
+				(stored[i] && compressedSize != originalLength))
+			{
+				throw new IOException("Corrupt container: invalid block " + i);
+			}
+		}
+	}
+
+	private static ByteBuffer readAt(FileChannel in, long position, int length) throws IOException
+	{
+		ByteBuffer buffer = ByteBuffer.allocate(length);
+		BlockContainer.readFully(in, buffer, position);
+
+		return buffer;
+	}
+}
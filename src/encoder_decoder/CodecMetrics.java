@@ -0,0 +1,184 @@
+package encoder_decoder;
+
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+/**
+ * Totals of what the codecs recording into it did, see {@link AdaptiveHuffmanEncoderDecoder#setMetrics}. <br>
+ * A codec counts in plain fields of its tree and bit I/O while it codes, and adds them here once per stream or
+ * container block, into striped {@link LongAdder}s that many threads update without contending. So recording costs
+ * nothing per symbol, and one instance can be shared by every codec of a service. <br>
+ * The totals are published over JMX by {@link #register}, and every sample is passed on to the listeners added
+ * with {@link #addListener}.
+ */
+public class CodecMetrics implements CodecMetricsMBean
+{
+	private final LongAdder compressCount = new LongAdder();
+	private final LongAdder decompressCount = new LongAdder();
+	private final LongAdder compressNanos = new LongAdder();
+	private final LongAdder decompressNanos = new LongAdder();
+	private final LongAdder compressBytesIn = new LongAdder();
+	private final LongAdder compressBytesOut = new LongAdder();
+	private final LongAdder decompressBytesIn = new LongAdder();
+	private final LongAdder decompressBytesOut = new LongAdder();
+	private final LongAdder symbols = new LongAdder();
+	private final LongAdder newSymbols = new LongAdder();
+	private final LongAdder swaps = new LongAdder();
+	private final LongAccumulator maxCodeLength = new LongAccumulator(Math::max, 0);
+
+	private final List<CodecMetricsListener> listeners = new CopyOnWriteArrayList<CodecMetricsListener>();
+
+	/**
+	 * publish the totals on the platform MBean server, as {@code encoder_decoder:type=CodecMetrics,name=<name>}
+	 * @param name name telling this instance from others in the same process
+	 * @return the name registered under
+	 * @throws JMException if the name is taken or the MBean could not be registered
+	 */
+	public ObjectName register(String name) throws JMException
+	{
+		ObjectName objectName = new ObjectName("encoder_decoder:type=CodecMetrics,name=" + ObjectName.quote(name));
+		ManagementFactory.getPlatformMBeanServer().registerMBean(this, objectName);
+
+		return objectName;
+	}
+
+	/**
+	 * @param listener listener to pass every sample recorded from now on to
+	 */
+	public void addListener(CodecMetricsListener listener)
+	{
+		listeners.add(listener);
+	}
+
+	public void removeListener(CodecMetricsListener listener)
+	{
+		listeners.remove(listener);
+	}
+
+	/**
+	 * add a sample to the totals and pass it to the listeners
+	 */
+	void record(CodecSample sample)
+	{
+		if (sample.getPhase() == eCodecPhase.compress)
+		{
+			compressCount.increment();
+			compressNanos.add(sample.getNanos());
+			compressBytesIn.add(sample.getBytesIn());
+			compressBytesOut.add(sample.getBytesOut());
+		}
+		else
+		{
+			decompressCount.increment();
+			decompressNanos.add(sample.getNanos());
+			decompressBytesIn.add(sample.getBytesIn());
+			decompressBytesOut.add(sample.getBytesOut());
+		}
+
+		symbols.add(sample.getSymbols());
+		newSymbols.add(sample.getNewSymbols());
+		swaps.add(sample.getSwaps());
+		maxCodeLength.accumulate(sample.getMaxCodeLength());
+
+		for (CodecMetricsListener listener : listeners)
+		{
+			listener.sampleRecorded(sample);
+		}
+	}
+
+	@Override
+	public long getCompressCount()
+	{
+		return compressCount.sum();
+	}
+
+	@Override
+	public long getDecompressCount()
+	{
+		return decompressCount.sum();
+	}
+
+	@Override
+	public long getCompressMillis()
+	{
+		return TimeUnit.NANOSECONDS.toMillis(compressNanos.sum());
+	}
+
+	@Override
+	public long getDecompressMillis()
+	{
+		return TimeUnit.NANOSECONDS.toMillis(decompressNanos.sum());
+	}
+
+	@Override
+	public long getCompressBytesIn()
+	{
+		return compressBytesIn.sum();
+	}
+
+	@Override
+	public long getCompressBytesOut()
+	{
+		return compressBytesOut.sum();
+	}
+
+	@Override
+	public long getDecompressBytesIn()
+	{
+		return decompressBytesIn.sum();
+	}
+
+	@Override
+	public long getDecompressBytesOut()
+	{
+		return decompressBytesOut.sum();
+	}
+
+	@Override
+	public long getSymbols()
+	{
+		return symbols.sum();
+	}
+
+	@Override
+	public long getNewSymbols()
+	{
+		return newSymbols.sum();
+	}
+
+	@Override
+	public long getSwaps()
+	{
+		return swaps.sum();
+	}
+
+	@Override
+	public long getMaxCodeLength()
+	{
+		return maxCodeLength.get();
+	}
+
+	@Override
+	public void reset()
+	{
+		compressCount.reset();
+		decompressCount.reset();
+		compressNanos.reset();
+		decompressNanos.reset();
+		compressBytesIn.reset();
+		compressBytesOut.reset();
+		decompressBytesIn.reset();
+		decompressBytesOut.reset();
+		symbols.reset();
+		newSymbols.reset();
+		swaps.reset();
+		maxCodeLength.reset();
+	}
+}
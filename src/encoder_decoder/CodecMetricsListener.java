@@ -0,0 +1,15 @@
+package encoder_decoder;
+
+/**
+ * Receives a {@link CodecSample} for every stream, or block of a container, compressed or decompressed
+ * by a codec recording into the {@link CodecMetrics} it was added to.
+ */
+public interface CodecMetricsListener
+{
+	/**
+	 * called on the thread that did the coding, right after it finished. it should return quickly,
+	 * a listener exporting to a slow backend should hand the sample over to another thread.
+	 * @param sample what the coding did
+	 */
+	public void sampleRecorded(CodecSample sample);
+}
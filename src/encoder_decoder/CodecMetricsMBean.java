@@ -0,0 +1,57 @@
+package encoder_decoder;
+
+/**
+ * The management interface of {@link CodecMetrics}, the totals since it was created or reset.
+ */
+public interface CodecMetricsMBean
+{
+	public long getCompressCount();
+
+	public long getDecompressCount();
+
+	/**
+	 * @return total wall time spent compressing, in milliseconds
+	 */
+	public long getCompressMillis();
+
+	/**
+	 * @return total wall time spent decompressing, in milliseconds
+	 */
+	public long getDecompressMillis();
+
+	/**
+	 * @return original bytes read by compressions
+	 */
+	public long getCompressBytesIn();
+
+	/**
+	 * @return compressed bytes written by compressions
+	 */
+	public long getCompressBytesOut();
+
+	/**
+	 * @return compressed bytes read by decompressions
+	 */
+	public long getDecompressBytesIn();
+
+	/**
+	 * @return original bytes written by decompressions
+	 */
+	public long getDecompressBytesOut();
+
+	public long getSymbols();
+
+	public long getNewSymbols();
+
+	public long getSwaps();
+
+	/**
+	 * @return length of the longest code coded by any compression or decompression
+	 */
+	public long getMaxCodeLength();
+
+	/**
+	 * set every total back to 0
+	 */
+	public void reset();
+}
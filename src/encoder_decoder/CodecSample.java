@@ -0,0 +1,97 @@
+package encoder_decoder;
+
+/**
+ * What one compression or decompression of a stream, or of one block of a container, did and how long it took. <br>
+ * Reported to every {@link CodecMetricsListener} of the {@link CodecMetrics} the codec records into.
+ */
+public class CodecSample
+{
+	private final eCodecPhase phase;
+	private final long bytesIn;
+	private final long bytesOut;
+	private final long symbols;
+	private final long newSymbols;
+	private final long swaps;
+	private final int maxCodeLength;
+	private final long nanos;
+
+	CodecSample(eCodecPhase phase, long bytesIn, long bytesOut, long symbols, long newSymbols, long swaps, int maxCodeLength, long nanos)
+	{
+		this.phase = phase;
+		this.bytesIn = bytesIn;
+		this.bytesOut = bytesOut;
+		this.symbols = symbols;
+		this.newSymbols = newSymbols;
+		this.swaps = swaps;
+		this.maxCodeLength = maxCodeLength;
+		this.nanos = nanos;
+	}
+
+	public eCodecPhase getPhase()
+	{
+		return phase;
+	}
+
+	/**
+	 * @return bytes read: original bytes when compressing, compressed bytes when decompressing
+	 */
+	public long getBytesIn()
+	{
+		return bytesIn;
+	}
+
+	/**
+	 * @return bytes written: compressed bytes when compressing, original bytes when decompressing
+	 */
+	public long getBytesOut()
+	{
+		return bytesOut;
+	}
+
+	/**
+	 * @return number of symbols coded
+	 */
+	public long getSymbols()
+	{
+		return symbols;
+	}
+
+	/**
+	 * @return number of those that were new, coded as the NYT escape followed by their raw bytes
+	 */
+	public long getNewSymbols()
+	{
+		return newSymbols;
+	}
+
+	/**
+	 * @return number of node swaps made updating the tree
+	 */
+	public long getSwaps()
+	{
+		return swaps;
+	}
+
+	/**
+	 * @return length of the longest code coded, the depth of the deepest leaf reached
+	 */
+	public int getMaxCodeLength()
+	{
+		return maxCodeLength;
+	}
+
+	/**
+	 * @return wall time in nanoseconds
+	 */
+	public long getNanos()
+	{
+		return nanos;
+	}
+
+	@Override
+	public String toString()
+	{
+		return phase + ": " + bytesIn + " -> " + bytesOut + " bytes, " + symbols + " symbols (" + newSymbols + " new), "
+			+ swaps + " swaps, max code length " + maxCodeLength + ", " + nanos / 1000 + " us";
+	}
+}
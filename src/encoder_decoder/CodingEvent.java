@@ -0,0 +1,53 @@
+package encoder_decoder;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight recorder event for the compression or decompression of one stream, or of one block of a container.
+ * Its time includes reading the input and writing the output, see the {@code BinaryIO} events for those.
+ */
+@Name("encoder_decoder.Coding")
+@Label("Coding")
+@Description("Compression or decompression of one stream or container block")
+@Category({ "Adaptive Huffman", "Codec" })
+class CodingEvent extends jdk.jfr.Event
+{
+	@Label("Phase")
+	String phase;
+
+	@Label("Symbol Size")
+	int symbolSize;
+
+	@Label("Update Rule")
+	String updateRule;
+
+	@Label("Tree Engine")
+	String treeEngine;
+
+	@Label("Bytes In")
+	@DataAmount
+	long bytesIn;
+
+	@Label("Bytes Out")
+	@DataAmount
+	long bytesOut;
+
+	@Label("Symbols")
+	long symbols;
+
+	@Label("New Symbols")
+	@Description("Symbols coded as the NYT escape followed by their raw bytes")
+	long newSymbols;
+
+	@Label("Swaps")
+	@Description("Node swaps made updating the tree")
+	long swaps;
+
+	@Label("Max Code Length")
+	@Description("Length of the longest code coded")
+	int maxCodeLength;
+}
@@ -0,0 +1,30 @@
+package encoder_decoder;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight recorder event for a whole {@code Compress} or {@code Decompress} call, opening and closing the files included.
+ * The streams or container blocks it codes are {@link CodingEvent}s.
+ */
+@Name("encoder_decoder.File")
+@Label("File Coding")
+@Description("Compression or decompression of a file")
+@Category({ "Adaptive Huffman", "Codec" })
+class FileCodingEvent extends jdk.jfr.Event
+{
+	@Label("Phase")
+	String phase;
+
+	@Label("Input")
+	String input;
+
+	@Label("Output")
+	String output;
+
+	@Label("Block Size")
+	@Description("Input bytes per block of the container, 0 for a single stream")
+	int blockSize;
+}
@@ -0,0 +1,258 @@
+package encoder_decoder;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.CRC32;
+
+/**
+ * The symbols a tree starts from, with their weights, trained from a corpus of inputs like the ones to be compressed.
+ * A tree seeded with them codes the symbols of the corpus from the first time they appear instead of escaping them as new,
+ * which is most of the output of a small input. <br>
+ * A stream compressed with a dictionary gives its id in the header, and is decompressed with the same dictionary,
+ * see {@link AdaptiveHuffmanEncoderDecoder#setDictionary}. The id is a checksum of the contents, so a dictionary
+ * trained again gets a new one. <br>
+ * Layout of a dictionary file, numbers are big endian:
+ * <pre>
+ * magic         4 bytes  0x00 'A' 'H' 'D'
+ * version       1 byte
+ * symbol size   1 byte
+ * symbol count  4 bytes
+ * symbols       symbol size bytes of the symbol and 4 bytes of its weight each, heaviest first
+ * </pre>
+ */
+public class SeedDictionary
+{
+	static final int MAGIC = 0x00414844;
+	static final byte VERSION = 1;
+	static final int HEADER_SIZE = 10;
+	// the seed is the starting weight of the root, which has to leave room for the updates of the input
+	private static final long MAX_TOTAL_WEIGHT = Integer.MAX_VALUE / 2;
+
+	private int symbolSize;
+	private long symbols[];
+	private int weights[];
+	private int id;
+
+	private SeedDictionary(int symbolSize, long symbols[], int weights[])
+	{
+		this.symbolSize = symbolSize;
+		this.symbols = symbols;
+		this.weights = weights;
+		this.id = (int) checksum();
+	}
+
+	/**
+	 * count the symbols of a corpus and keep the most frequent ones. a symbol starts at the average number of times
+	 * it appears in an input of the corpus, at least 1, so a seeded tree starts as if it had already coded one of them.
+	 * @param symbolSize size in bytes of the symbols, 1 to 8. an input is split into symbols from its first byte,
+	 * a partial last symbol is not counted
+	 * @param maxSymbols the most symbols to keep
+	 * @param corpus the inputs to train on, each one as a whole
+	 * @return the trained dictionary
+	 * @throws IllegalArgumentException if the symbol size is out of range
+	 */
+	public static SeedDictionary train(int symbolSize, int maxSymbols, Iterable<byte[]> corpus)
+	{
+		if (symbolSize < 1 || symbolSize > Long.BYTES)
+		{
+			throw new IllegalArgumentException("Symbol size " + symbolSize + " is not between 1 and " + Long.BYTES);
+		}
+
+		Map<Long, Long> counts = new HashMap<>();
+		int inputs = 0;
+
+		for (byte input[] : corpus)
+		{
+			for (int at = 0; at + symbolSize <= input.length; at += symbolSize)
+			{
+				counts.merge(symbolAt(input, at, symbolSize), 1L, Long::sum);
+			}
+
+			inputs++;
+		}
+
+		// the most frequent first, and of those the smallest symbol first so training the same corpus gives the same dictionary
+		List<Map.Entry<Long, Long>> frequent = new ArrayList<>(counts.entrySet());
+		frequent.sort((a, b) -> a.getValue().equals(b.getValue()) ? Long.compare(a.getKey(), b.getKey()) : Long.compare(b.getValue(), a.getValue()));
+
+		int kept = Math.min(Math.max(maxSymbols, 0), frequent.size());
+		long symbols[] = new long[kept];
+		int weights[] = new int[kept];
+		long totalWeight = 0;
+
+		for (int i = 0; i < kept; i++)
+		{
+			long average = Math.max(1, Math.round((double) frequent.get(i).getValue() / inputs));
+			if (totalWeight + average > MAX_TOTAL_WEIGHT)
+			{
+				kept = i;
+				break;
+			}
+
+			symbols[i] = frequent.get(i).getKey();
+			weights[i] = (int) average;
+			totalWeight += average;
+		}
+
+		return new SeedDictionary(symbolSize, Arrays.copyOf(symbols, kept), Arrays.copyOf(weights, kept));
+	}
+
+	/**
+	 * @param path the dictionary file to read
+	 * @return the dictionary
+	 * @throws IOException if the file can not be read or is not a valid dictionary
+	 */
+	public static SeedDictionary read(Path path) throws IOException
+	{
+		ByteBuffer in = ByteBuffer.wrap(Files.readAllBytes(path));
+
+		try
+		{
+			if (in.getInt() != MAGIC)
+			{
+				throw new IOException("Not a seed dictionary: " + path);
+			}
+
+			byte version = in.get();
+			if (version != VERSION)
+			{
+				throw new IOException("Unsupported seed dictionary version " + version);
+			}
+
+			int symbolSize = in.get();
+			int count = in.getInt();
+			if (symbolSize < 1 || symbolSize > Long.BYTES || count < 0 || (long) count * (symbolSize + Integer.BYTES) != in.remaining())
+			{
+				throw new IOException("Corrupt seed dictionary: " + path);
+			}
+
+			long symbols[] = new long[count];
+			int weights[] = new int[count];
+			Set<Long> seen = new HashSet<>();
+			long totalWeight = 0;
+
+			for (int i = 0; i < count; i++)
+			{
+				for (int b = 0; b < symbolSize; b++)
+				{
+					symbols[i] = symbols[i] << Byte.SIZE | (in.get() & 0xff);
+				}
+
+				weights[i] = in.getInt();
+				totalWeight += weights[i];
+
+				if (weights[i] <= 0 || totalWeight > MAX_TOTAL_WEIGHT || !seen.add(symbols[i]))
+				{
+					throw new IOException("Corrupt seed dictionary: " + path);
+				}
+			}
+
+			return new SeedDictionary(symbolSize, symbols, weights);
+		}
+		catch (BufferUnderflowException e)
+		{
+			throw new IOException("Corrupt seed dictionary: " + path + " is truncated", e);
+		}
+	}
+
+	/**
+	 * @param path the file to write the dictionary to, replacing it if it exists
+	 */
+	public void write(Path path) throws IOException
+	{
+		Files.write(path, toBytes().array());
+	}
+
+	/**
+	 * @return the id streams compressed with this dictionary give in their header
+	 */
+	public int getId()
+	{
+		return id;
+	}
+
+	/**
+	 * @return size in bytes of the symbols, the dictionary is only used to code symbols of this size
+	 */
+	public int getSymbolSize()
+	{
+		return symbolSize;
+	}
+
+	/**
+	 * @return number of symbols in the dictionary
+	 */
+	public int getSymbolCount()
+	{
+		return symbols.length;
+	}
+
+	/**
+	 * @return the symbols packed into longs, heaviest first. not to be modified
+	 */
+	long[] getSymbols()
+	{
+		return symbols;
+	}
+
+	/**
+	 * @return the weight of each of {@link #getSymbols}. not to be modified
+	 */
+	int[] getWeights()
+	{
+		return weights;
+	}
+
+	@Override
+	public String toString()
+	{
+		return String.format("SeedDictionary[id=%08x, symbolSize=%d, symbols=%d]", id, symbolSize, symbols.length);
+	}
+
+	private ByteBuffer toBytes()
+	{
+		ByteBuffer out = ByteBuffer.allocate(HEADER_SIZE + symbols.length * (symbolSize + Integer.BYTES));
+		out.putInt(MAGIC).put(VERSION).put((byte) symbolSize).putInt(symbols.length);
+
+		for (int i = 0; i < symbols.length; i++)
+		{
+			for (int b = symbolSize - 1; b >= 0; b--)
+			{
+				out.put((byte) (symbols[i] >>> (b * Byte.SIZE)));
+			}
+
+			out.putInt(weights[i]);
+		}
+
+		return out.flip();
+	}
+
+	private long checksum()
+	{
+		CRC32 crc = new CRC32();
+		crc.update(toBytes());
+
+		return crc.getValue();
+	}
+
+	private static long symbolAt(byte input[], int at, int symbolSize)
+	{
+		long symbol = 0;
+		for (int i = 0; i < symbolSize; i++)
+		{
+			symbol = symbol << Byte.SIZE | (input[at + i] & 0xff);
+		}
+
+		return symbol;
+	}
+}
@@ -0,0 +1,130 @@
+package encoder_decoder;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Estimates the size a block compresses to with every symbol size, from how often each symbol occurs in it, in one
+ * counting pass per size instead of a coding run. <br>
+ * A symbol is estimated at its order 0 information but at least 1 bit, the shortest code a huffman tree gives.
+ * The first occurrence of a symbol is estimated at its raw bytes and the code of the new symbol node on top,
+ * which is what makes a large symbol size expensive on data with few repeating symbols. <br>
+ * The count tables are kept between calls, so an estimator is not to be shared by concurrent calls.
+ */
+class SymbolSizeEstimator
+{
+	private static final int DIRECT_COUNT_BITS = 2 * Byte.SIZE;
+	private static final long HASH_MULTIPLIER = 0x9E3779B97F4A7C15L;
+
+	// the counts of symbols of up to 2 bytes, indexed by the symbol
+	private int directCounts[] = new int[1 << DIRECT_COUNT_BITS];
+
+	// an open addressing table counting larger symbols, a count of 0 marks a free slot
+	private long keys[] = new long[0];
+	private int counts[] = new int[0];
+
+	/**
+	 * @param block the bytes to estimate, from their position to their limit. the buffer is not changed
+	 * @return the symbol size with the smallest estimate, the smallest one of a tie
+	 */
+	int bestSymbolSize(ByteBuffer block)
+	{
+		int bestSize = 1;
+		double bestBits = Double.MAX_VALUE;
+
+		for (int size = 1; size <= Long.BYTES; size++)
+		{
+			double bits = estimateBits(block, size);
+			if (bits < bestBits)
+			{
+				bestSize = size;
+				bestBits = bits;
+			}
+		}
+
+		return bestSize;
+	}
+
+	/**
+	 * @return the estimated number of bits coding {@code block} with symbols of {@code size} bytes takes
+	 */
+	double estimateBits(ByteBuffer block, int size)
+	{
+		int symbols = block.remaining() / size;
+		// a partial last symbol is written as its raw bytes
+		double bits = (double) (block.remaining() % size) * Byte.SIZE;
+
+		if (size * Byte.SIZE <= DIRECT_COUNT_BITS)
+		{
+			int used = 1 << (size * Byte.SIZE);
+			Arrays.fill(directCounts, 0, used, 0);
+			for (int i = 0, at = block.position(); i < symbols; i++, at += size)
+			{
+				directCounts[(int) symbolAt(block, at, size)]++;
+			}
+
+			return bits + countBits(directCounts, used, symbols, size);
+		}
+
+		int capacity = Integer.highestOneBit(Math.max(symbols, 8)) * 4;
+		if (counts.length < capacity)
+		{
+			keys = new long[capacity];
+			counts = new int[capacity];
+		}
+		else
+		{
+			capacity = counts.length;
+			Arrays.fill(counts, 0);
+		}
+
+		int shift = Long.SIZE - Integer.numberOfTrailingZeros(capacity);
+		for (int i = 0, at = block.position(); i < symbols; i++, at += size)
+		{
+			long symbol = symbolAt(block, at, size);
+			int slot = (int) ((symbol * HASH_MULTIPLIER) >>> shift);
+			while (counts[slot] != 0 && keys[slot] != symbol)
+			{
+				slot = (slot + 1) & (capacity - 1);
+			}
+
+			keys[slot] = symbol;
+			counts[slot]++;
+		}
+
+		return bits + countBits(counts, capacity, symbols, size);
+	}
+
+	/**
+	 * @return the estimated bits of {@code symbols} symbols of {@code size} bytes, given the first {@code used} counts
+	 */
+	private static double countBits(int symbolCounts[], int used, int symbols, int size)
+	{
+		int distinct = 0;
+		double bits = 0;
+
+		for (int i = 0; i < used; i++)
+		{
+			int count = symbolCounts[i];
+			if (count > 0)
+			{
+				distinct++;
+				bits += count * Math.max(1, Math.log((double) symbols / count) / Math.log(2));
+			}
+		}
+
+		// every new symbol is written raw after the code of the new symbol node, about as long as the tree is deep
+		return bits + distinct * (size * Byte.SIZE + Math.log(distinct + 1) / Math.log(2));
+	}
+
+	private static long symbolAt(ByteBuffer block, int at, int size)
+	{
+		long symbol = 0;
+		for (int i = 0; i < size; i++)
+		{
+			symbol = symbol << Byte.SIZE | (block.get(at + i) & 0xff);
+		}
+
+		return symbol;
+	}
+}
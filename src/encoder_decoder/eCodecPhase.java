@@ -0,0 +1,12 @@
+package encoder_decoder;
+
+/**
+ * The phases {@link CodecMetrics} times and counts separately. <br>
+ * compress - coding input into a compressed stream, or into one block of a container. <br>
+ * decompress - decoding a compressed stream, or one block of a container.
+ */
+public enum eCodecPhase
+{
+	compress,
+	decompress
+}
@@ -19,6 +19,7 @@ public class ProgramGui extends javax.swing.JFrame
     /** Creates new form ProgramGui */
     public ProgramGui(ProgramHandler handler) {
         initComponents();
+        initSymbolSizeLabels();
         compProgressBar.setVisible(!VISIBLE);
         decompProgressBar.setVisible(!VISIBLE);
         initLookAndFeel();
@@ -125,7 +126,7 @@ public class ProgramGui extends javax.swing.JFrame
 
         symbolSizeSlider.setMajorTickSpacing(1);
         symbolSizeSlider.setMaximum(8);
-        symbolSizeSlider.setMinimum(1);
+        symbolSizeSlider.setMinimum(0);
         symbolSizeSlider.setPaintLabels(true);
         symbolSizeSlider.setPaintTicks(true);
 
@@ -317,6 +318,14 @@ public class ProgramGui extends javax.swing.JFrame
         pack();
     }                      
 
+    // label the lowest symbol size as the automatic choice
+    private void initSymbolSizeLabels() 
+    {
+        java.util.Hashtable<Integer, javax.swing.JComponent> labels = symbolSizeSlider.createStandardLabels(1, 1);
+        labels.put(0, new javax.swing.JLabel("auto"));
+        symbolSizeSlider.setLabelTable(labels);
+    }
+
     private void initLookAndFeel() 
     {
     	try {
@@ -604,7 +613,7 @@ public class ProgramGui extends javax.swing.JFrame
         return new String[] {decompOutputFileNameTextArea.getText()};
     }
     
-    // getter for symbol size
+    // getter for symbol size, 0 for auto
     public int getSymbolSize() 
     {
         return symbolSizeSlider.getValue();
@@ -34,8 +34,9 @@ public class ProgramHandler
 		// combine the path for output with name
 		String[] fullOutputPath = {outputFileFolderPath[0] + "\\" + outputFileName[0]};
 		
-		// create encoderDecoder object
+		// create encoderDecoder object, a symbol size of 0 lets it choose one
 		encoderDecoder = new AdaptiveHuffmanEncoderDecoder(symbolSize);
+		encoderDecoder.setAutoSymbolSize(symbolSize == 0);
 		
 		// compress
 		encoderDecoder.Compress(inputFilePath, fullOutputPath);
@@ -16,6 +16,10 @@ public class Runner
 		{
 			Tester test = new Tester();
 			test.test(true);
+			test.testLengths(64);
+			test.testLegacyTail();
+			test.testPipe(1);
+			test.testPipe(2);
 		}
 		catch (Exception e)
 		{
@@ -1,12 +1,24 @@
 package main;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PipedInputStream;
+import java.io.PipedOutputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 
 import encoder_decoder.AdaptiveHuffmanEncoderDecoder;
+import encoder_decoder.AdaptiveHuffmanInputStream;
+import encoder_decoder.AdaptiveHuffmanOutputStream;
+import tree_utils.eUpdateRule;
 
 /**
  * This class is used for testing AdaptiveHuffmanEncoderDecoder
@@ -21,6 +33,26 @@ public class Tester
 	static final String decomp_file_name = "OnTheOrigin";
 	static final String format = ".txt";
 
+	// 11 bytes leave a shorter last symbol with every symbol size but 1, and the baseline version compressed them to
+	// the bytes below with symbol sizes 1 to 8, which it decompressed back correctly
+	static final byte[] sf_LegacyTailInput = "abcdefghijk".getBytes();
+	static final String[] sf_LegacyTailOutputs = {
+		"16118831a3203291990cea3401a446a21ae0",
+		"2616218d9032b3233b4034b511ae",
+		"3616263191959833b434a3535c",
+		"461626364195999da034b535c0",
+		"561626364651999da1a5a835c0",
+		"661626364656619da1a5a9ae",
+		"7616263646566671a1a5a9ae",
+		"861626364656667681a5a9ae"
+	};
+
+	// a flush leaves the last bits of a byte in the writer, and the reader peeks ahead of a code,
+	// so the last few symbols before a flush may only come out after more is written
+	static final int sf_PipeInputLength = 1 << 12;
+	static final int sf_PipeHeldBackBytes = 16;
+	static final long sf_PipeTimeoutSeconds = 5;
+
 	private final String[] k_InCompPath;
 	private final String[] k_OutCompPath;
 	private final String[] k_OutDecompPath;
@@ -42,7 +74,7 @@ public class Tester
 
 	/**
 	 * test a single file by compressing it and then decompressing it, comparing input and output.
-	 * <br> this method tries all possible symbol sizes allowed by the program implementation.
+	 * <br> this method tries all possible symbol sizes allowed by the program implementation, and the automatic choice as size 0.
 	 * @param i_CleanupAfter a flag to indicate whether to delete residual files afterwards.
 	 */
 	public void test(boolean i_CleanupAfter)
@@ -51,13 +83,18 @@ public class Tester
 		final int maxSupportedSymbolSize = 8;
 		AdaptiveHuffmanEncoderDecoder ende;
 		
-		for (int i = 1; i <= maxSupportedSymbolSize; i++) 
+		for (int i = 0; i <= maxSupportedSymbolSize; i++) 
 		{
 			String[] out_comp_name = {k_OutCompPath[0] + "\\" + sf_InCompFileName + i};
 			String[] out_decomp_name = {k_OutDecompPath[0] + "\\" + sf_InCompFileName + "_" + i + format};
 			
 			ende = new AdaptiveHuffmanEncoderDecoder(i);
+			ende.setAutoSymbolSize(i == 0);
 			ende.Compress(k_InCompPath, out_comp_name);
+			if (i == 0)
+			{
+				System.out.println("Chose symbol size " + ende.getSymbolSize());
+			}
 			ende.Decompress(out_comp_name, out_decomp_name);
 			
 			// test result of compression
@@ -90,6 +127,181 @@ public class Tester
 		}
 	}
 
+	/**
+	 * test every input length from 1 to {@code i_MaxLength} with every symbol size, in memory,
+	 * so every length of a shorter last symbol is decompressed back in the length prefixed format and through the streams.
+	 * the legacy format ends as older versions do, see {@link #testLegacyTail}.
+	 * @param i_MaxLength the longest input to test
+	 * @return {@code true} if and only if every input came back as it was
+	 */
+	public boolean testLengths(int i_MaxLength)
+	{
+		final int maxSupportedSymbolSize = 8;
+		Random random = new Random(i_MaxLength);
+		int failures = 0;
+		int tests = 0;
+
+		for (int length = 1; length <= i_MaxLength; length++)
+		{
+			byte input[] = new byte[length];
+			random.nextBytes(input);
+
+			for (int i = 1; i <= maxSupportedSymbolSize; i++)
+			{
+				AdaptiveHuffmanEncoderDecoder ende = new AdaptiveHuffmanEncoderDecoder(i);
+				if (!Arrays.equals(input, ende.decompress(ende.compress(input))))
+				{
+					System.out.println(String.format("Fail: symbol size %d, length %d", i, length));
+					failures++;
+				}
+				tests++;
+
+				if (!Arrays.equals(input, throughStreams(input, i)))
+				{
+					System.out.println(String.format("Fail: streams, symbol size %d, length %d", i, length));
+					failures++;
+				}
+				tests++;
+			}
+		}
+
+		System.out.println(String.format("%s: %d of %d length tests failed", failures == 0 ? "Success" : "Fail", failures, tests));
+		return failures == 0;
+	}
+
+	/**
+	 * test that the legacy format still ends a shorter last symbol as older versions read it: compressing
+	 * {@link #sf_LegacyTailInput} with every symbol size, in memory and through the output stream, gives the bytes the
+	 * baseline version wrote, and decoding them with the baseline tail logic gives the input back.
+	 * @return {@code true} if and only if every symbol size matched
+	 */
+	public boolean testLegacyTail()
+	{
+		int failures = 0;
+
+		for (int i = 1; i <= sf_LegacyTailOutputs.length; i++)
+		{
+			byte expected[] = hexToBytes(sf_LegacyTailOutputs[i - 1]);
+			AdaptiveHuffmanEncoderDecoder ende = new AdaptiveHuffmanEncoderDecoder(i);
+			ende.setUpdateRule(eUpdateRule.legacy);
+
+			byte compressed[] = ende.compress(sf_LegacyTailInput);
+			byte streamed[] = compressThroughStream(sf_LegacyTailInput, ende);
+
+			if (!Arrays.equals(expected, compressed) || !Arrays.equals(expected, streamed) ||
+				!Arrays.equals(sf_LegacyTailInput, ende.decompress(expected)))
+			{
+				System.out.println(String.format("Fail: legacy tail, symbol size %d", i));
+				failures++;
+			}
+		}
+
+		System.out.println(String.format("%s: %d of %d legacy tail tests failed", failures == 0 ? "Success" : "Fail", failures, sf_LegacyTailOutputs.length));
+		return failures == 0;
+	}
+
+	/**
+	 * test that a stream reader gets the symbols a writer flushed while the writer is still open: random bytes are
+	 * written into a pipe and flushed, and all but the last {@link #sf_PipeHeldBackBytes} of them must come out of the
+	 * other end before the writer is closed, the rest right after it is.
+	 * @param i_SymbolSize size in bytes of the symbols to code with
+	 * @return {@code true} if and only if the flushed bytes came out in time and the whole input came out
+	 */
+	public boolean testPipe(int i_SymbolSize)
+	{
+		byte input[] = new byte[sf_PipeInputLength];
+		new Random(1).nextBytes(input);
+		byte output[] = new byte[input.length];
+		int[] received = {0};
+		CountDownLatch flushedReceived = new CountDownLatch(1);
+		boolean inTime = false;
+
+		try (PipedInputStream pipe = new PipedInputStream(2 * input.length))
+		{
+			// the reader keeps reading to the end, a pipe fails writes once its reading thread is gone
+			Thread reader = new Thread(() ->
+			{
+				try
+				{
+					InputStream in = new AdaptiveHuffmanInputStream(pipe, new AdaptiveHuffmanEncoderDecoder(i_SymbolSize));
+					for (int b = in.read(); b >= 0 && received[0] < output.length; b = in.read())
+					{
+						output[received[0]++] = (byte) b;
+						if (received[0] == output.length - sf_PipeHeldBackBytes)
+						{
+							flushedReceived.countDown();
+						}
+					}
+				}
+				catch (IOException e)
+				{
+					// the output comes out short
+				}
+			});
+			reader.setDaemon(true);
+			reader.start();
+
+			try (OutputStream out = new AdaptiveHuffmanOutputStream(new PipedOutputStream(pipe), i_SymbolSize))
+			{
+				out.write(input);
+				out.flush();
+				inTime = flushedReceived.await(sf_PipeTimeoutSeconds, TimeUnit.SECONDS);
+			}
+
+			reader.join(TimeUnit.SECONDS.toMillis(sf_PipeTimeoutSeconds));
+		}
+		catch (IOException | InterruptedException e)
+		{
+			inTime = false;
+		}
+
+		boolean passed = inTime && received[0] == output.length && Arrays.equals(input, output);
+		System.out.println(String.format("%s: pipe test, symbol size %d, flushed bytes %s", passed ? "Success" : "Fail", i_SymbolSize,
+			inTime ? "read before closing" : "not read before closing"));
+		return passed;
+	}
+
+	private static byte[] throughStreams(byte i_Input[], int i_SymbolSize)
+	{
+		try
+		{
+			try (InputStream in = new AdaptiveHuffmanInputStream(new ByteArrayInputStream(compressThroughStream(i_Input, new AdaptiveHuffmanEncoderDecoder(i_SymbolSize)))))
+			{
+				return in.readAllBytes();
+			}
+		}
+		catch (IOException e)
+		{
+			return null;
+		}
+	}
+
+	private static byte[] compressThroughStream(byte i_Input[], AdaptiveHuffmanEncoderDecoder i_Codec)
+	{
+		ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+		try (OutputStream out = new AdaptiveHuffmanOutputStream(compressed, i_Codec))
+		{
+			out.write(i_Input);
+		}
+		catch (IOException e)
+		{
+			return null;
+		}
+
+		return compressed.toByteArray();
+	}
+
+	private static byte[] hexToBytes(String i_Hex)
+	{
+		byte bytes[] = new byte[i_Hex.length() / 2];
+		for (int i = 0; i < bytes.length; i++)
+		{
+			bytes[i] = (byte) Integer.parseInt(i_Hex.substring(2 * i, 2 * i + 2), 16);
+		}
+
+		return bytes;
+	}
+
 	private void finalizeTest()
 	{
 		System.out.println("[*] Deleting residual files");
@@ -0,0 +1,858 @@
+package tree_utils;
+
+import java.util.Arrays;
+
+import BinaryIO.BitReader;
+import BinaryIO.BitWriter;
+
+/**
+ * Huffman tree stored in parallel primitive arrays instead of {@link Node} objects. <br>
+ * Nodes are indexed by their implicit (Vitter) number: the root is 0 and every new node gets the next index,
+ * so a lower index means a higher id in {@link HuffmanTree}. <br>
+ * The parent of an index never changes, swapping two nodes exchanges the contents (weight, symbol, children) of their indexes. <br>
+ * With the legacy update rule the codes produced are identical to the ones of {@link HuffmanTree}. <br>
+ * With the block update rule the indexes are kept ordered by weight (sibling property), so every block of equal weight
+ * is a contiguous range of indexes whose leader (highest id) is its lowest index. Each index is labeled with its block
+ * and each block keeps its leader, so finding the leader is constant time. <br>
+ * Symbols are kept packed into a {@code long}, only full size symbols are put in the {@link LeafIndex}:
+ * a shorter symbol can only be the last one of the input, so it is always new. <br>
+ * Decoding resolves the top {@value #DECODE_TABLE_BITS} levels of the tree with one lookup of the next bits in a table,
+ * built on the first decode and patched whenever a node in those levels changes. <br>
+ * With a code length limit set (block update rule only) the tree is rescaled whenever the root weight reaches
+ * the smallest one a tree with a longer code can have, see {@link #setCodeLengthLimit}. <br>
+ * A seeded tree (block update rule only) starts every input from the symbols and weights of its seed instead of
+ * a single NYT node, built the same way a rescale rebuilds the tree, see {@link #setSeed}. With a code length limit
+ * the seed is halved until the tree it builds is below the weight it would rescale at.
+ */
+public class ArrayHuffmanTree implements CodingTree
+{
+	private static final int NONE = LeafIndex.NONE;
+	private static final int ROOT = 0;
+	private static final int INITIAL_CAPACITY = 64;
+	private static final int DECODE_TABLE_BITS = 8;
+	private static final int DECODE_ENTRY_NODE_SHIFT = 4;	// a decode table entry holds the node index above the bits consumed
+	private static final int CONSUMED_BITS_MASK = (1 << DECODE_ENTRY_NODE_SHIFT) - 1;
+
+	/**
+	 * the highest code length limit, the root weight it rescales at is the largest fibonacci number an {@code int} holds
+	 */
+	public static final int MAX_CODE_LENGTH_LIMIT = 44;
+
+	private eUpdateRule updateRule;
+	private int symbolSize;
+	private int size;
+	private int currentNYT;
+
+	private int weight[];
+	private int parent[];
+	private int left[];
+	private int right[];
+	private long symbol[];
+	private byte symbolLength[];
+
+	// entry for every DECODE_TABLE_BITS bit prefix: the leaf it ends at or the node DECODE_TABLE_BITS levels down,
+	// and the number of bits consumed to get there. null until the first decode
+	private int decodeTable[];
+	
+	// block structure, used by the block update rule only
+	private int block[];
+	private int blockLeader[];
+	private int freeBlocks[];
+	private int freeBlockCount;
+	private int blockCount;
+
+	private LeafIndex leaves;
+	private CodeRegister code;
+
+	private int rescaleWeight;	// root weight to rescale at, 0 to never rescale
+
+	// the symbol last decoded, its leaf may move with the update
+	private long decodedSymbol;
+	private int decodedLength;
+
+	// the leaves of the seed, lightest first after the NYT at 0, as rebuild takes them. null without a seed
+	private int seedWeight[];
+	private long seedSymbol[];
+	private byte seedLength[];
+
+	// the leaves every input starts from: the seed scaled to the code length limit, see limitSeed
+	private int startWeight[];
+	private long startSymbol[];
+	private byte startLength[];
+	private int startCount;
+
+	// statistics since the tree was created or reset
+	private long symbolCount;
+	private long newSymbolCount;
+	private long swapCount;
+	private int maxCodeLength;
+
+	/**
+	 * @param updateRule the rule to update the tree by
+	 * @param symbolSize size in bytes of the symbols to be coded
+	 */
+	public ArrayHuffmanTree(eUpdateRule updateRule, int symbolSize)
+	{
+		this.updateRule = updateRule;
+		this.symbolSize = symbolSize;
+		weight = new int[INITIAL_CAPACITY];
+		parent = new int[INITIAL_CAPACITY];
+		left = new int[INITIAL_CAPACITY];
+		right = new int[INITIAL_CAPACITY];
+		symbol = new long[INITIAL_CAPACITY];
+		symbolLength = new byte[INITIAL_CAPACITY];
+		block = new int[INITIAL_CAPACITY];
+		blockLeader = new int[INITIAL_CAPACITY];
+		freeBlocks = new int[INITIAL_CAPACITY];
+		code = new CodeRegister();
+		leaves = new LeafIndex(symbolSize);
+
+		addRoot();
+	}
+
+	@Override
+	public void reset()
+	{
+		symbolCount = 0;
+		newSymbolCount = 0;
+		swapCount = 0;
+		maxCodeLength = 0;
+
+		if (seedWeight != null)
+		{
+			rebuild(startCount, startWeight, startSymbol, startLength);
+			return;
+		}
+
+		size = 0;
+		freeBlockCount = 0;
+		blockCount = 0;
+		leaves.clear();
+
+		addRoot();
+		patchDecodeTable(ROOT);
+	}
+
+	/**
+	 * start from the seed instead of a single NYT node: the tree is built from the symbols of the seed as a static huffman
+	 * tree of their weights, with the NYT at weight 0, and the updates go on from there. the tree is reset to it now.
+	 * ties of weight are broken by the order of the symbols, so the decoder must get them in the order the encoder did.
+	 * with a code length limit the weights are halved as a rescale would, until the root weight is below the one
+	 * the tree rescales at.
+	 * @throws IllegalArgumentException if the arrays differ in length or a weight is not positive
+	 * @throws UnsupportedOperationException if a seed is set with the legacy update rule, which does not keep the sibling property
+	 */
+	@Override
+	public void setSeed(long symbols[], int weights[])
+	{
+		if (symbols == null)
+		{
+			seedWeight = null;
+			seedSymbol = null;
+			seedLength = null;
+			reset();
+			return;
+		}
+
+		if (updateRule == eUpdateRule.legacy)
+		{
+			throw new UnsupportedOperationException("A seeded tree needs the block update rule");
+		}
+
+		if (symbols.length != weights.length)
+		{
+			throw new IllegalArgumentException(symbols.length + " seed symbols but " + weights.length + " weights");
+		}
+
+		Integer order[] = new Integer[symbols.length];
+		for (int i = 0; i < order.length; i++)
+		{
+			if (weights[i] <= 0)
+			{
+				throw new IllegalArgumentException("Seed weight " + weights[i] + " is not positive");
+			}
+
+			order[i] = i;
+		}
+
+		// stable, so equal weights stay in the order given
+		Arrays.sort(order, (a, b) -> Integer.compare(weights[a], weights[b]));
+
+		seedWeight = new int[symbols.length + 1];
+		seedSymbol = new long[symbols.length + 1];
+		seedLength = new byte[symbols.length + 1];
+		for (int i = 0; i < order.length; i++)
+		{
+			seedWeight[i + 1] = weights[order[i]];
+			seedSymbol[i + 1] = symbols[order[i]];
+			seedLength[i + 1] = (byte) symbolSize;
+		}
+
+		limitSeed();
+		reset();
+	}
+
+	/**
+	 * bound the length of the codes by rescaling the tree: when the root weight reaches {@code F(limit + 2)}
+	 * (fibonacci), the weights of the symbols are halved and the tree is rebuilt. <br>
+	 * a tree keeping the sibling property has a leaf at depth {@code d} only if its root weight is at least {@code F(d + 1)},
+	 * so no code is longer than {@code limit} bits. symbols whose weight halves to 0 are dropped, and coded as new the next time.
+	 * encoder and decoder rescale after the same symbol, as they must set the same limit.
+	 * a seeded tree is reset to its seed halved to the new limit, see {@link #setSeed}.
+	 * @param limit the longest code allowed, 1 to {@value #MAX_CODE_LENGTH_LIMIT}, or 0 to never rescale (the default)
+	 * @throws IllegalArgumentException if the limit is out of range
+	 * @throws UnsupportedOperationException if a limit is set with the legacy update rule, which does not keep the sibling property
+	 */
+	@Override
+	public void setCodeLengthLimit(int limit)
+	{
+		if (limit < 0 || limit > MAX_CODE_LENGTH_LIMIT)
+		{
+			throw new IllegalArgumentException("Code length limit " + limit + " is not between 1 and " + MAX_CODE_LENGTH_LIMIT);
+		}
+
+		if (limit > 0 && updateRule == eUpdateRule.legacy)
+		{
+			throw new UnsupportedOperationException("A code length limit needs the block update rule");
+		}
+
+		int previousRescaleWeight = rescaleWeight;
+		rescaleWeight = 0;
+
+		if (limit > 0)
+		{
+			int previous = 1;
+			rescaleWeight = 1;
+			for (int i = 2; i < limit + 2; i++)
+			{
+				rescaleWeight += previous;
+				previous = rescaleWeight - previous;
+			}
+		}
+
+		if (seedWeight != null && rescaleWeight != previousRescaleWeight)
+		{
+			limitSeed();
+			reset();
+		}
+	}
+
+	/**
+	 * scale the seed to the code length limit: halve its weights, dropping the symbols that get to 0 as a rescale does,
+	 * until the root weight is below the one the tree rescales at. a heavier seed would have codes longer than the limit,
+	 * and be rescaled after the first symbol of every input.
+	 */
+	private void limitSeed()
+	{
+		int shift = 0;
+		while (rescaleWeight > 0 && seedTotalWeight(shift) >= rescaleWeight)
+		{
+			shift++;
+		}
+
+		if (shift == 0)
+		{
+			startWeight = seedWeight;
+			startSymbol = seedSymbol;
+			startLength = seedLength;
+			startCount = seedWeight.length;
+			return;
+		}
+
+		startWeight = new int[seedWeight.length];
+		startSymbol = new long[seedWeight.length];
+		startLength = new byte[seedWeight.length];
+		startCount = 1;	// the NYT, weight 0
+
+		// halving keeps the weights sorted, so the leaves still come lightest first
+		for (int i = 1; i < seedWeight.length; i++)
+		{
+			if (seedWeight[i] >> shift > 0)
+			{
+				startWeight[startCount] = seedWeight[i] >> shift;
+				startSymbol[startCount] = seedSymbol[i];
+				startLength[startCount] = seedLength[i];
+				startCount++;
+			}
+		}
+	}
+
+	/**
+	 * @return the sum of the seed weights, each halved {@code shift} times
+	 */
+	private long seedTotalWeight(int shift)
+	{
+		long total = 0;
+		for (int i = 1; i < seedWeight.length; i++)
+		{
+			total += seedWeight[i] >> shift;
+		}
+
+		return total;
+	}
+
+	/**
+	 * add the root to the empty tree, as the NYT node
+	 */
+	private void addRoot()
+	{
+		currentNYT = newNode(0, NONE);
+		block[currentNYT] = NONE;
+	}
+
+	@Override
+	public boolean encodeSymbol(long packedSymbol, int length, BitWriter out)
+	{
+		int leaf = length == symbolSize ? leaves.get(packedSymbol) : NONE;
+		symbolCount++;
+
+		if (leaf != NONE)
+		{
+			writePathToNode(out, leaf);
+			update(leaf);
+			return false;
+		}
+
+		writePathToNode(out, currentNYT);
+		addNewSymbolNode(packedSymbol, length);
+		return true;
+	}
+
+	@Override
+	public boolean decodeSymbol(BitReader in)
+	{
+		int traverseNode = ROOT;
+
+		if (decodeTable == null)
+		{
+			decodeTable = new int[1 << DECODE_TABLE_BITS];
+			patchDecodeTable(ROOT);
+		}
+
+		// near the end of the input the bits past it peek as 0, only the bits of the code are consumed
+		int entry = decodeTable[(int) in.peekBits(DECODE_TABLE_BITS)];
+		int codeLength = entry & CONSUMED_BITS_MASK;
+		in.skipBits(codeLength);
+		traverseNode = entry >>> DECODE_ENTRY_NODE_SHIFT;
+
+		for (; left[traverseNode] != NONE; codeLength++)
+		{
+			if (in.readBit() == Node.RIGHT_CHILD)
+			{
+				traverseNode = right[traverseNode];
+			}
+			else
+			{
+				traverseNode = left[traverseNode];
+			}
+		}
+
+		symbolCount++;
+		maxCodeLength = Math.max(maxCodeLength, codeLength);
+
+		if (traverseNode == currentNYT)
+		{
+			return false;
+		}
+
+		decodedSymbol = symbol[traverseNode];
+		decodedLength = symbolLength[traverseNode];
+		update(traverseNode);
+
+		return true;
+	}
+
+	@Override
+	public long getDecodedSymbol()
+	{
+		return decodedSymbol;
+	}
+
+	@Override
+	public int getDecodedLength()
+	{
+		return decodedLength;
+	}
+
+	@Override
+	public void addNewSymbolNode(long packedSymbol, int length)
+	{
+		int oldNYT = currentNYT;
+		newSymbolCount++;
+
+		// the new symbol gets the higher id, to the right of the new NYT
+		int newChild = newNode(1, oldNYT);
+		symbol[newChild] = packedSymbol;
+		symbolLength[newChild] = (byte) length;
+
+		currentNYT = newNode(0, oldNYT);
+
+		left[oldNYT] = currentNYT;
+		right[oldNYT] = newChild;
+		patchDecodeTable(oldNYT);
+
+		if (length == symbolSize)
+		{
+			leaves.put(packedSymbol, newChild);
+		}
+
+		if (updateRule == eUpdateRule.legacy)
+		{
+			updateTree(oldNYT);
+			return;
+		}
+
+		// the old NYT and the new symbol both go from 0 to 1, they are right below the lowest node of weight >= 1
+		weight[oldNYT] = weight[newChild] = 1;
+		block[currentNYT] = NONE;
+
+		if (oldNYT > ROOT && weight[oldNYT - 1] == 1)
+		{
+			block[oldNYT] = block[newChild] = block[oldNYT - 1];
+		}
+		else
+		{
+			block[oldNYT] = block[newChild] = newBlock(oldNYT);
+		}
+
+		if (parent[oldNYT] != NONE)
+		{
+			updateBlocks(parent[oldNYT]);
+		}
+
+		rescaleIfHeavy();
+	}
+
+	private void update(int leaf)
+	{
+		if (updateRule == eUpdateRule.legacy)
+		{
+			updateTree(leaf);
+		}
+		else
+		{
+			updateBlocks(leaf);
+			rescaleIfHeavy();
+		}
+	}
+
+	private void rescaleIfHeavy()
+	{
+		if (rescaleWeight > 0 && weight[ROOT] >= rescaleWeight)
+		{
+			rescale();
+		}
+	}
+
+	/**
+	 * halve the weights of the symbols, dropping the ones that get to 0, and rebuild the tree from them.
+	 */
+	private void rescale()
+	{
+		// the weights never increase with the index, so the leaves from the last index back come out sorted
+		int leafCount = (size + 1) / 2;
+		int leafWeight[] = new int[leafCount];
+		long leafSymbol[] = new long[leafCount];
+		byte leafLength[] = new byte[leafCount];
+
+		leafCount = 1;	// the NYT, weight 0
+		for (int node = size - 1; node >= ROOT; node--)
+		{
+			if (left[node] == NONE && weight[node] / 2 > 0)
+			{
+				leafWeight[leafCount] = weight[node] / 2;
+				leafSymbol[leafCount] = symbol[node];
+				leafLength[leafCount] = symbolLength[node];
+				leafCount++;
+			}
+		}
+
+		rebuild(leafCount, leafWeight, leafSymbol, leafLength);
+	}
+
+	/**
+	 * replace the tree with the one a static huffman tree of the given leaves would be, keeping the sibling property:
+	 * nodes are numbered in the reverse order they are merged in, so the weights never increase with the index
+	 * and siblings are next to each other.
+	 * @param leafCount number of leaves, the NYT at 0 with weight 0 and the symbols after it, lightest first
+	 */
+	private void rebuild(int leafCount, int leafWeight[], long leafSymbol[], byte leafLength[])
+	{
+		// merge the two lightest of the leaves and the merged nodes, which come out sorted as well.
+		// merged[k] is the k-th node merged: leaf i as i, merged node j as ~j. the lighter of a pair goes left.
+		// ties go to the merged node, so the parent of the NYT comes right before the sibling of the NYT, as updates expect
+		int nodes = 2 * leafCount - 1;
+		int merged[] = new int[nodes];
+		int mergedWeight[] = new int[leafCount - 1];
+		int nextLeaf = 0;
+		int nextMerged = 0;
+
+		for (int k = 0; k < nodes - 1; k++)
+		{
+			if (nextLeaf < leafCount && (nextMerged == k / 2 || leafWeight[nextLeaf] < mergedWeight[nextMerged]))
+			{
+				merged[k] = nextLeaf++;
+			}
+			else
+			{
+				merged[k] = ~nextMerged++;
+			}
+
+			if (k % 2 == 1)
+			{
+				mergedWeight[k / 2] = mergedWeight(merged[k - 1], leafWeight, mergedWeight) + mergedWeight(merged[k], leafWeight, mergedWeight);
+			}
+		}
+
+		merged[nodes - 1] = leafCount == 1 ? 0 : ~(leafCount - 2);
+
+		// the node merged k-th gets index nodes - 1 - k, the root is merged last
+		ensureCapacity(nodes);
+		size = nodes;
+		leaves.clear();
+		parent[ROOT] = NONE;
+
+		for (int k = nodes - 1; k >= 0; k--)
+		{
+			int node = nodes - 1 - k;
+
+			if (merged[k] >= 0)
+			{
+				int leaf = merged[k];
+				weight[node] = leafWeight[leaf];
+				symbol[node] = leafSymbol[leaf];
+				symbolLength[node] = leafLength[leaf];
+				left[node] = right[node] = NONE;
+			}
+			else
+			{
+				int pair = ~merged[k];
+				weight[node] = mergedWeight[pair];
+				left[node] = nodes - 1 - 2 * pair;
+				right[node] = nodes - 2 - 2 * pair;
+			}
+
+			adoptChildren(node);
+		}
+
+		freeBlockCount = 0;
+		blockCount = 0;
+
+		for (int node = ROOT; node < size; node++)
+		{
+			if (weight[node] == 0)
+			{
+				block[node] = NONE;
+			}
+			else if (node > ROOT && weight[node - 1] == weight[node])
+			{
+				block[node] = block[node - 1];
+			}
+			else
+			{
+				block[node] = newBlock(node);
+			}
+		}
+
+		patchDecodeTable(ROOT);
+	}
+
+	private static int mergedWeight(int merged, int leafWeight[], int mergedWeight[])
+	{
+		return merged >= 0 ? leafWeight[merged] : mergedWeight[~merged];
+	}
+
+	/**
+	 * FGK update starting from a given node, up to and including the root: 
+	 * swap every node with the leader of its block (unless the leader is its parent), then increment it.
+	 * @param node index of the node to start updating from
+	 */
+	private void updateBlocks(int node)
+	{
+		while (node != NONE)
+		{
+			int leader = blockLeader[block[node]];
+
+			// the leader is the parent only for the sibling of the NYT, which then has no nodes between it and its parent
+			if (leader != node && leader != parent[node])
+			{
+				swap(node, leader);
+				node = leader;
+			}
+
+			incrementWeight(node);
+
+			node = parent[node];
+		}
+	}
+
+	/**
+	 * increment the weight of a node that is the leader of its block (or the sibling of the NYT) and move it to the next block.
+	 * @param node index of the node
+	 */
+	private void incrementWeight(int node)
+	{
+		int oldBlock = block[node];
+		int newWeight = ++weight[node];
+
+		if (blockLeader[oldBlock] == node)
+		{
+			if (node + 1 < size && weight[node + 1] == newWeight - 1)
+			{
+				blockLeader[oldBlock] = node + 1;
+			}
+			else
+			{
+				freeBlock(oldBlock);
+			}
+		}
+
+		if (node > ROOT && weight[node - 1] == newWeight)
+		{
+			block[node] = block[node - 1];
+		}
+		else
+		{
+			block[node] = newBlock(node);
+		}
+
+		// the sibling of the NYT was incremented before its parent, join the two
+		if (node + 1 < size && weight[node + 1] == newWeight && block[node + 1] != block[node])
+		{
+			freeBlock(block[node + 1]);
+			block[node + 1] = block[node];
+		}
+	}
+
+	private int newBlock(int leader)
+	{
+		int newBlock = freeBlockCount > 0 ? freeBlocks[--freeBlockCount] : blockCount++;
+		blockLeader[newBlock] = leader;
+
+		return newBlock;
+	}
+
+	private void freeBlock(int oldBlock)
+	{
+		freeBlocks[freeBlockCount++] = oldBlock;
+	}
+
+	/**
+	 * update the tree starting from a given node, up to (not including) the root.
+	 * @param node index of the node to start updating from
+	 */
+	private void updateTree(int node)
+	{
+		while (parent[node] != NONE)
+		{
+			// the parent stays with the index, so it is the same before and after the swap
+			int parentNode = parent[node];
+			int nodeWithHighestIdInBlock = getNodeWithHighestIdInBlock(node);
+
+			if (nodeWithHighestIdInBlock != node)
+			{
+				swap(node, nodeWithHighestIdInBlock);
+			}
+
+			weight[nodeWithHighestIdInBlock]++;
+
+			node = parentNode;
+		}
+	}
+
+	/**
+	 * find the node with the highest id in {@code node} block, looking at the children of every node on the path to the root.
+	 * @param node index of the node to compare other nodes to
+	 * @return index of the node with the highest id in the block relative to {@code node}
+	 * @see HuffmanTree#getNodeWithHighestIdInBlock
+	 */
+	private int getNodeWithHighestIdInBlock(int node)
+	{
+		int nodeToReturn = node;
+
+		for (int ancestor = parent[node]; ancestor != NONE; ancestor = parent[ancestor])
+		{
+			nodeToReturn = higherInBlock(left[ancestor], nodeToReturn);
+			nodeToReturn = higherInBlock(right[ancestor], nodeToReturn);
+		}
+
+		return nodeToReturn;
+	}
+
+	private int higherInBlock(int nodeToCheck, int nodeToReturn)
+	{
+		if (nodeToCheck < nodeToReturn &&
+			weight[nodeToCheck] == weight[nodeToReturn] &&
+			nodeToCheck != parent[nodeToReturn])
+		{
+			return nodeToCheck;
+		}
+
+		return nodeToReturn;
+	}
+
+	/**
+	 * swap the subtrees at index {@code a} and {@code b}.
+	 */
+	private void swap(int a, int b)
+	{
+		swapCount++;
+
+		int tmpWeight = weight[a];
+		weight[a] = weight[b];
+		weight[b] = tmpWeight;
+
+		long tmpSymbol = symbol[a];
+		symbol[a] = symbol[b];
+		symbol[b] = tmpSymbol;
+
+		byte tmpLength = symbolLength[a];
+		symbolLength[a] = symbolLength[b];
+		symbolLength[b] = tmpLength;
+
+		int tmpChild = left[a];
+		left[a] = left[b];
+		left[b] = tmpChild;
+
+		tmpChild = right[a];
+		right[a] = right[b];
+		right[b] = tmpChild;
+
+		adoptChildren(a);
+		adoptChildren(b);
+
+		patchDecodeTable(a);
+		patchDecodeTable(b);
+	}
+
+	/**
+	 * rewrite the decode table entries of the prefixes going through {@code node}, after its contents changed.
+	 * nothing to do if the table was not built yet or the node is below the levels the table covers.
+	 * @param node index of the node
+	 */
+	private void patchDecodeTable(int node)
+	{
+		if (decodeTable == null)
+		{
+			return;
+		}
+
+		// a swap moves whole subtrees, so the depth is found by walking up, giving up below the table
+		int prefix = 0;
+		int nodeDepth = 0;
+		for (int child = node; parent[child] != NONE; child = parent[child], nodeDepth++)
+		{
+			if (nodeDepth == DECODE_TABLE_BITS)
+			{
+				return;
+			}
+
+			if (right[parent[child]] == child)
+			{
+				prefix |= 1 << nodeDepth;
+			}
+		}
+
+		fillDecodeTable(node, nodeDepth, prefix);
+	}
+
+	private void fillDecodeTable(int node, int nodeDepth, int prefix)
+	{
+		if (left[node] == NONE || nodeDepth == DECODE_TABLE_BITS)
+		{
+			int free = DECODE_TABLE_BITS - nodeDepth;
+			int from = prefix << free;
+			Arrays.fill(decodeTable, from, from + (1 << free), node << DECODE_ENTRY_NODE_SHIFT | nodeDepth);
+			return;
+		}
+
+		fillDecodeTable(left[node], nodeDepth + 1, prefix << 1);
+		fillDecodeTable(right[node], nodeDepth + 1, prefix << 1 | 1);
+	}
+
+	/**
+	 * point the children of {@code node} (or the leaves index / NYT, for a leaf) back at it after its contents moved.
+	 */
+	private void adoptChildren(int node)
+	{
+		if (left[node] != NONE)
+		{
+			parent[left[node]] = node;
+			parent[right[node]] = node;
+		}
+		else if (weight[node] == 0)
+		{
+			currentNYT = node;
+		}
+		else if (symbolLength[node] == symbolSize)
+		{
+			leaves.put(symbol[node], node);
+		}
+	}
+
+	private void writePathToNode(BitWriter out, int node)
+	{
+		code.clear();
+
+		for (int child = node; parent[child] != NONE; child = parent[child])
+		{
+			code.push(right[parent[child]] == child);
+		}
+
+		code.writeTo(out);
+		maxCodeLength = Math.max(maxCodeLength, code.length());
+	}
+
+	@Override
+	public long getSymbolCount()
+	{
+		return symbolCount;
+	}
+
+	@Override
+	public long getNewSymbolCount()
+	{
+		return newSymbolCount;
+	}
+
+	@Override
+	public long getSwapCount()
+	{
+		return swapCount;
+	}
+
+	@Override
+	public int getMaxCodeLength()
+	{
+		return maxCodeLength;
+	}
+
+	private int newNode(int nodeWeight, int nodeParent)
+	{
+		ensureCapacity(size + 1);
+
+		int node = size++;
+		weight[node] = nodeWeight;
+		parent[node] = nodeParent;
+		left[node] = right[node] = NONE;
+
+		return node;
+	}
+
+	private void ensureCapacity(int nodes)
+	{
+		if (nodes > weight.length)
+		{
+			int capacity = Math.max(nodes, weight.length * 2);
+			weight = Arrays.copyOf(weight, capacity);
+			parent = Arrays.copyOf(parent, capacity);
+			left = Arrays.copyOf(left, capacity);
+			right = Arrays.copyOf(right, capacity);
+			symbol = Arrays.copyOf(symbol, capacity);
+			symbolLength = Arrays.copyOf(symbolLength, capacity);
+			block = Arrays.copyOf(block, capacity);
+			blockLeader = Arrays.copyOf(blockLeader, capacity);
+			freeBlocks = Arrays.copyOf(freeBlocks, capacity);
+		}
+	}
+}
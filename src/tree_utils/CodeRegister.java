@@ -0,0 +1,72 @@
+package tree_utils;
+
+import java.util.Arrays;
+
+import BinaryIO.BitWriter;
+
+/**
+ * Collects the bits of a code while walking from a node up to the root, and writes them root first. <br>
+ * The bits are shifted into a 64 bit register, codes deeper than that spill whole registers into an array,
+ * so collecting and writing a code allocates nothing.
+ */
+class CodeRegister
+{
+	private long register;
+	private int length;
+
+	private long overflow[] = new long[4];
+	private int overflowCount;
+
+	public void clear()
+	{
+		register = 0;
+		length = 0;
+		overflowCount = 0;
+	}
+
+	/**
+	 * @return number of bits collected
+	 */
+	public int length()
+	{
+		return overflowCount * Long.SIZE + length;
+	}
+
+	/**
+	 * add the bit of the next edge up the tree
+	 * @param bit {@link Node#RIGHT_CHILD} for a 1 bit, {@link Node#LEFT_CHILD} for a 0 bit
+	 */
+	public void push(boolean bit)
+	{
+		if (bit)
+		{
+			register |= 1L << length;
+		}
+
+		if (++length == Long.SIZE)
+		{
+			if (overflowCount == overflow.length)
+			{
+				overflow = Arrays.copyOf(overflow, overflowCount * 2);
+			}
+
+			overflow[overflowCount++] = register;
+			register = 0;
+			length = 0;
+		}
+	}
+
+	/**
+	 * write the collected code, the bit pushed last is written first.
+	 * @param out BitWriter object for writing
+	 */
+	public void writeTo(BitWriter out)
+	{
+		out.writeBits(register, length);
+
+		for (int i = overflowCount - 1; i >= 0; i--)
+		{
+			out.writeBits(overflow[i], Long.SIZE);
+		}
+	}
+}
@@ -0,0 +1,93 @@
+package tree_utils;
+
+import BinaryIO.BitReader;
+import BinaryIO.BitWriter;
+import utilities.Symbol;
+
+/**
+ * An adaptive huffman tree as seen by the encoder / decoder. <br>
+ * Every implementation must produce the exact same codes for the same sequence of symbols and {@link eUpdateRule},
+ * so files compressed with one tree engine can be decompressed with any other.
+ */
+public interface CodingTree
+{
+	/**
+	 * write the current code of {@code symbol} and update the tree. <br>
+	 * a symbol that is not in the tree yet is written as the code of the NYT node and added to the tree,
+	 * writing its raw bytes is left to the caller.
+	 * @param symbol the bytes of the symbol packed as by {@link Symbol#toLong}
+	 * @param length number of bytes in the symbol
+	 * @param out BitWriter object for writing
+	 * @return {@code true} if and only if the symbol was new
+	 */
+	public boolean encodeSymbol(long symbol, int length, BitWriter out);
+
+	/**
+	 * traverse the tree from the root by reading bits until a leaf is reached. 1 means go right, 0 means left. <br>
+	 * if the leaf holds a symbol the tree is updated for it, and the symbol is left for {@link #getDecodedSymbol}
+	 * so decoding allocates nothing.
+	 * @param in BitReader object for reading
+	 * @return {@code true} if a symbol was decoded, or {@code false} if the NYT node was reached -
+	 * the caller should then read the raw symbol and {@link #addNewSymbolNode} it
+	 * if EOF is reached in the middle of a code the missing bits read as 0, check {@link BitReader#isOverrun} afterwards.
+	 */
+	public boolean decodeSymbol(BitReader in);
+
+	/**
+	 * @return the bytes of the symbol last decoded by {@link #decodeSymbol}, packed as by {@link Symbol#toLong}
+	 */
+	public long getDecodedSymbol();
+
+	/**
+	 * @return number of bytes in the symbol last decoded by {@link #decodeSymbol}
+	 */
+	public int getDecodedLength();
+
+	/**
+	 * add a new symbol to the tree by splitting the NYT node, and update the tree.
+	 * @param symbol the bytes of the new symbol packed as by {@link Symbol#toLong}
+	 * @param length number of bytes in the symbol
+	 */
+	public void addNewSymbolNode(long symbol, int length);
+
+	/**
+	 * bound the length of the codes, by rescaling the weights of the tree whenever it could grow a longer code.
+	 * the limit is kept by {@link #reset}, and the decoder must use the one the encoder did.
+	 * @param limit the longest code allowed, or 0 to never rescale
+	 */
+	public void setCodeLengthLimit(int limit);
+
+	/**
+	 * start every input from the given symbols at the given weights instead of an empty tree, so symbols known
+	 * up front are not coded as new. the seed is kept by {@link #reset}, and the decoder must use the one the encoder did.
+	 * the tree is reset to the seed.
+	 * @param symbols the symbols, full size and packed as by {@link Symbol#toLong}, or {@code null} for no seed (the default)
+	 * @param weights the weight of each symbol, at least 1
+	 */
+	public void setSeed(long symbols[], int weights[]);
+
+	/**
+	 * @return number of symbols encoded or decoded since the tree was created or reset, new ones included
+	 */
+	public long getSymbolCount();
+
+	/**
+	 * @return number of new symbols added, each one coded as the NYT escape
+	 */
+	public long getNewSymbolCount();
+
+	/**
+	 * @return number of node swaps made by the updates
+	 */
+	public long getSwapCount();
+
+	/**
+	 * @return length of the longest code encoded or decoded, the depth of the deepest leaf reached
+	 */
+	public int getMaxCodeLength();
+
+	/**
+	 * empty the tree back to a single NYT node, keeping whatever was allocated so it can code the next input.
+	 */
+	public void reset();
+}
@@ -1,21 +1,42 @@
 package tree_utils;
 
 import java.util.HashMap;
-import java.util.LinkedList;
 
+import BinaryIO.BitReader;
+import BinaryIO.BitWriter;
 import utilities.Symbol;
 
-public class HuffmanTree 
+public class HuffmanTree implements CodingTree
 {
+	// ids only matter relative to each other: the root gets 0 and every new node the next lower id,
+	// so the numbering grows with the symbols seen and not with the 2^(8 * symbol size) possible ones
 	private int id;
 	
 	private Node root, currentNYT;
 	private HashMap<Symbol, Node> leaves;
+	private CodeRegister code;
+	private Symbol decodedSymbol;	// the symbol last decoded
 	
-	public HuffmanTree(int numberOfSymbols) 
+	// statistics since the tree was created or reset
+	private long symbolCount;
+	private long swapCount;
+	private int maxCodeLength;
+	
+	public HuffmanTree() 
 	{
-		id = 2 * numberOfSymbols - 1;
 		leaves = new HashMap<Symbol, Node>();
+		code = new CodeRegister();
+		reset();
+	}
+	
+	@Override
+	public void reset() 
+	{
+		id = 0;
+		leaves.clear();
+		symbolCount = 0;
+		swapCount = 0;
+		maxCodeLength = 0;
 		root = new Node(id, 0, null, null);
 		currentNYT = root;
 		
@@ -23,11 +44,87 @@ public class HuffmanTree
 		id--;
 	}
 	
+	@Override
+	public boolean encodeSymbol(long packedSymbol, int length, BitWriter out) 
+	{
+		Symbol symbol = Symbol.fromLong(packedSymbol, length);
+		Node currentNode = this.containsSymbol(symbol);
+		symbolCount++;
+		
+		if (currentNode != null) 
+		{
+			// not a new symbol
+			writePathToNode(out, currentNode);
+			this.updateTree(currentNode);
+		}
+		else 
+		{
+			// encounter a new symbol
+			writePathToNode(out, currentNYT);
+			this.addNewSymbolNode(symbol); 
+		}
+		
+		return currentNode == null;
+	}
+	
+	@Override
+	public boolean decodeSymbol(BitReader in) 
+	{
+		Node traverseNode = root;
+		int codeLength = 0;
+		
+		// read bits until you reach a leaf
+		for (; !traverseNode.isLeaf(); codeLength++) 
+		{
+			if (in.readBit() == Node.RIGHT_CHILD) 
+			{
+				traverseNode = traverseNode.getRight();
+			} 
+			else 
+			{
+				traverseNode = traverseNode.getLeft();
+			}
+		}
+		
+		symbolCount++;
+		maxCodeLength = Math.max(maxCodeLength, codeLength);
+		
+		// new symbol
+		if (traverseNode.isNYT()) 
+		{
+			return false;
+		}
+		
+		// not nyt - symbol already exists
+		decodedSymbol = traverseNode.getSymbol();
+		this.updateTree(traverseNode);
+		
+		return true;
+	}
+	
+	@Override
+	public long getDecodedSymbol() 
+	{
+		return decodedSymbol.toLong();
+	}
+	
+	@Override
+	public int getDecodedLength() 
+	{
+		return decodedSymbol.getLength();
+	}
+	
 	/**
 	 * Add a node to the huffman tree. if the byte associated with that node already exists
 	 * then only increment its weight.
 	 * @param node the node to be added to the tree
 	 */
+	@Override
+	public void addNewSymbolNode(long packedSymbol, int length) 
+	{
+		this.addNewSymbolNode(Symbol.fromLong(packedSymbol, length));
+	}
+	
 	public void addNewSymbolNode(Symbol symbol) 
 	{
 		// create and update new node, and NYT node
@@ -55,37 +152,24 @@ public class HuffmanTree
 	public void updateTree(Node node) 
 	{
 		Node parentNode = node.getParent();
-		if (parentNode == null) 
-		{
-			return;
-		}
 		
-		if (parentNode != null) 
+		while (parentNode != null && !parentNode.equals(node)) 
 		{
-			if (parentNode.equals(node))
+			// swap node with the node with highest id number in its block
+			Node nodeWithHighestIdInBlock = this.getNodeWithHighestIdInBlock(node);
+			
+			if (!node.equals(nodeWithHighestIdInBlock)) 
 			{
-				return;
+				 node.swapWith(nodeWithHighestIdInBlock);
+				 swapCount++;
 			}
-		}
-		
-		if (node.equals(this.root)) 
-		{	
+			
 			node.incrementWeight();
-			return;			
-		}
-		
-		// swap node with the node with highest id number in its block
-		Node nodeWithHighestIdInBlock = this.getNodeWithHighestIdInBlock(node);
-		
-		if (!node.equals(nodeWithHighestIdInBlock)) 
-		{
-			 node.swapWith(nodeWithHighestIdInBlock);
+			
+			// continue from the parent the node had before the swap
+			node = parentNode;
+			parentNode = node.getParent();
 		}
-		
-		node.incrementWeight();
-
-		// update the tree
-		this.updateTree(parentNode);
 	}
 
 	/**
@@ -122,35 +206,103 @@ public class HuffmanTree
 	 */
 	public Node getNodeWithHighestIdInBlock(Node nodeToCompare) 
 	{
-		LinkedList<Node> Q = new LinkedList<Node>();
 		Node parentOfStartingNode = nodeToCompare.getParent();
 		
 		Node nodeToReturn = nodeToCompare;
 		
 		while (parentOfStartingNode != null) 
 		{
-			Q.add(parentOfStartingNode.getLeft());
-			Q.add(parentOfStartingNode.getRight());
+			nodeToReturn = higherInBlock(parentOfStartingNode.getLeft(), nodeToReturn);
+			nodeToReturn = higherInBlock(parentOfStartingNode.getRight(), nodeToReturn);
 			
 			parentOfStartingNode = parentOfStartingNode.getParent();
 		}
 		
-		while (!Q.isEmpty()) 
+		return nodeToReturn;
+	}
+	
+	private Node higherInBlock(Node nodeToCheck, Node nodeToReturn) 
+	{
+		if (nodeToCheck.getId() > nodeToReturn.getId()) 
 		{
-			Node nodeToCheck = Q.poll();
-			
-			if (nodeToCheck.getId() > nodeToReturn.getId()) 
+			if (nodeToCheck.getWeight() == nodeToReturn.getWeight()) 
 			{
-				if (nodeToCheck.getWeight() == nodeToReturn.getWeight()) 
+				if (!nodeToCheck.equals(nodeToReturn.getParent())) 
 				{
-					if (!nodeToCheck.equals(nodeToReturn.getParent())) 
-					{
-						nodeToReturn = nodeToCheck;
-					}
+					return nodeToCheck;
 				}
 			}
 		}
 		
 		return nodeToReturn;
 	}
+	
+	private void writePathToNode(BitWriter out, Node node)
+	{
+		code.clear();
+		
+		Node parent = node.getParent();
+		Node childNode = node;
+		
+		while (parent != null && !parent.equals(childNode)) 
+		{
+			code.push(parent.getLeft().equals(childNode) ? Node.LEFT_CHILD : Node.RIGHT_CHILD);
+			
+			childNode = parent;
+			parent = parent.getParent();
+		}
+		
+		code.writeTo(out);
+		maxCodeLength = Math.max(maxCodeLength, code.length());
+	}
+	
+	/**
+	 * this tree implements the legacy update rule only, which does not keep the sibling property a limit relies on
+	 * @throws UnsupportedOperationException if a limit is set
+	 */
+	@Override
+	public void setCodeLengthLimit(int limit) 
+	{
+		if (limit != 0) 
+		{
+			throw new UnsupportedOperationException("A code length limit needs the block update rule");
+		}
+	}
+	
+	/**
+	 * this tree implements the legacy update rule only, which does not keep the sibling property a seed is built with
+	 * @throws UnsupportedOperationException if a seed is set
+	 */
+	@Override
+	public void setSeed(long symbols[], int weights[]) 
+	{
+		if (symbols != null) 
+		{
+			throw new UnsupportedOperationException("A seeded tree needs the block update rule");
+		}
+	}
+	
+	@Override
+	public long getSymbolCount() 
+	{
+		return symbolCount;
+	}
+	
+	@Override
+	public long getNewSymbolCount() 
+	{
+		return leaves.size();
+	}
+	
+	@Override
+	public long getSwapCount() 
+	{
+		return swapCount;
+	}
+	
+	@Override
+	public int getMaxCodeLength() 
+	{
+		return maxCodeLength;
+	}
 }
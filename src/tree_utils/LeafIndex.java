@@ -0,0 +1,144 @@
+package tree_utils;
+
+import java.util.Arrays;
+
+/**
+ * Maps symbols packed into a {@code long} (see {@link utilities.Symbol#toLong}) to the index of their leaf. <br>
+ * Symbols of 1 and 2 bytes are looked up directly in a table of all possible values,
+ * wider symbols in an open addressing hash table with linear probing. Nothing is allocated per lookup.
+ */
+public class LeafIndex
+{
+	public static final int NONE = -1;
+
+	private static final int MAX_DIRECT_SYMBOL_SIZE = 2;
+	private static final int INITIAL_CAPACITY = 1 << 8;
+	private static final long HASH_MULTIPLIER = 0x9E3779B97F4A7C15L;
+
+	private boolean direct;
+	private long keys[];
+	private int values[];
+	private int size;
+	private int shift;
+
+	/**
+	 * @param symbolSize size in bytes of the symbols to index
+	 */
+	public LeafIndex(int symbolSize)
+	{
+		direct = symbolSize <= MAX_DIRECT_SYMBOL_SIZE;
+
+		if (direct)
+		{
+			values = new int[1 << (8 * symbolSize)];
+		}
+		else
+		{
+			keys = new long[INITIAL_CAPACITY];
+			values = new int[INITIAL_CAPACITY];
+			shift = Long.numberOfLeadingZeros(INITIAL_CAPACITY - 1);
+		}
+
+		Arrays.fill(values, NONE);
+	}
+
+	/**
+	 * @param key the packed symbol
+	 * @return index of the leaf of {@code key}, {@link #NONE} if it is not in the index
+	 */
+	public int get(long key)
+	{
+		if (direct)
+		{
+			return values[(int) key];
+		}
+
+		int mask = values.length - 1;
+		for (int slot = hash(key); values[slot] != NONE; slot = (slot + 1) & mask)
+		{
+			if (keys[slot] == key)
+			{
+				return values[slot];
+			}
+		}
+
+		return NONE;
+	}
+
+	/**
+	 * add {@code key} or move it to a new leaf
+	 * @param key the packed symbol
+	 * @param leaf index of its leaf
+	 */
+	public void put(long key, int leaf)
+	{
+		if (direct)
+		{
+			values[(int) key] = leaf;
+			return;
+		}
+
+		int mask = values.length - 1;
+		int slot = hash(key);
+		while (values[slot] != NONE)
+		{
+			if (keys[slot] == key)
+			{
+				values[slot] = leaf;
+				return;
+			}
+
+			slot = (slot + 1) & mask;
+		}
+
+		keys[slot] = key;
+		values[slot] = leaf;
+
+		// keep the table at most half full
+		if (++size * 2 > values.length)
+		{
+			grow();
+		}
+	}
+
+	/**
+	 * remove all the keys, keeping the table at its current capacity
+	 */
+	public void clear()
+	{
+		Arrays.fill(values, NONE);
+		size = 0;
+	}
+
+	private int hash(long key)
+	{
+		return (int) ((key * HASH_MULTIPLIER) >>> shift);
+	}
+
+	private void grow()
+	{
+		long oldKeys[] = keys;
+		int oldValues[] = values;
+
+		keys = new long[oldKeys.length * 2];
+		values = new int[oldValues.length * 2];
+		Arrays.fill(values, NONE);
+		shift--;
+
+		int mask = values.length - 1;
+		for (int i = 0; i < oldValues.length; i++)
+		{
+			if (oldValues[i] != NONE)
+			{
+				int slot = hash(oldKeys[i]);
+				while (values[slot] != NONE)
+				{
+					slot = (slot + 1) & mask;
+				}
+
+				keys[slot] = oldKeys[i];
+				values[slot] = oldValues[i];
+			}
+		}
+	}
+}
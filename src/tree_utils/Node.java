@@ -1,7 +1,5 @@
 package tree_utils;
 
-import java.util.Stack;
-
 import utilities.Symbol;
 
 /**
@@ -14,7 +12,6 @@ public class Node implements Comparable<Node>
 	private int id, weight;
 	private Symbol symbol;
 	private Node left, right, parent;
-	private Stack<Boolean> pathToThisNode;
 
 	public Node() 
 	{
@@ -36,7 +33,6 @@ public class Node implements Comparable<Node>
 		this.weight = weight;
 		this.symbol = val;
 		this.left = this.right = null;
-		this.pathToThisNode = null;
 	}
 	
 	/**
@@ -86,38 +82,6 @@ public class Node implements Comparable<Node>
 		}
 	}
 	
-	public Stack<Boolean> getPathToThisNode() 
-	{
-		this.pathToThisNode = new Stack<>();
-		Node parent = this.getParent();
-		Node childNode = this;
-		
-		while (parent != null && childNode != null) 
-		{		
-			if (parent.getLeft().equals(childNode)) 
-			{
-				this.pathToThisNode.push(LEFT_CHILD);
-			}
-			else 
-			{
-				this.pathToThisNode.push(RIGHT_CHILD);
-			}
-			
-			childNode = parent;
-			parent = parent.getParent();
-			
-			if (parent != null) 
-			{
-				if (parent.equals(childNode)) 
-				{
-					break;
-				}
-			}
-		}
-	
-		return pathToThisNode;
-	}
-	
 	/**
 	 * check if this node is NYT
 	 * @return True if and only if this node is NYT - weight == 0, false otherwise.
@@ -0,0 +1,12 @@
+package tree_utils;
+
+/**
+ * The available implementations of {@link CodingTree}. <br>
+ * node - the original object tree, supports the legacy update rule only. <br>
+ * array - primitive arrays, supports every {@link eUpdateRule}.
+ */
+public enum eTreeEngine
+{
+	node,
+	array
+}
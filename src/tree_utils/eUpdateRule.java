@@ -0,0 +1,12 @@
+package tree_utils;
+
+/**
+ * The ways a {@link CodingTree} can be updated after coding a symbol. <br>
+ * legacy - swap with the highest id of equal weight among the siblings on the path to the root (the original format). <br>
+ * block - FGK update with a maintained block structure, swap with the leader of the node's block in O(1).
+ */
+public enum eUpdateRule
+{
+	legacy,
+	block
+}
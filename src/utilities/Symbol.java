@@ -45,6 +45,45 @@ public class Symbol
 		return bytes;
 	}
 	
+	public int getLength() 
+	{
+		return len;
+	}
+	
+	/**
+	 * pack the bytes of this symbol into a {@code long}, the first byte is the most significant one. <br>
+	 * symbols are at most 8 bytes long, so together with the length this is lossless.
+	 * @return the packed bytes
+	 * @see #fromLong
+	 */
+	public long toLong() 
+	{
+		long packed = 0;
+		for (int i = 0; i < len; i++) 
+		{
+			packed = (packed << 8) | (bytes[i] & 0xff);
+		}
+		
+		return packed;
+	}
+	
+	/**
+	 * create a symbol from bytes packed by {@link #toLong}
+	 * @param packed the packed bytes
+	 * @param len number of bytes in the symbol
+	 * @return new {@code Symbol} with the unpacked bytes
+	 */
+	public static Symbol fromLong(long packed, int len) 
+	{
+		Symbol symbol = new Symbol(len);
+		for (int i = 0; i < len; i++) 
+		{
+			symbol.bytes[i] = (byte) (packed >>> (8 * (len - 1 - i)));
+		}
+		
+		return symbol;
+	}
+	
 	public String getString() 
 	{
 		String s = "";
@@ -0,0 +1,118 @@
+package utilities;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+
+import BinaryIO.ByteSource;
+import BinaryIO.ReadEvent;
+
+/**
+ * Reads fixed size symbols from a {@link ByteSource} (a memory mapped file or a buffered input stream),
+ * each one packed into a {@code long} as by {@link Symbol#toLong}. <br>
+ * The symbols are sliced straight out of the source's buffers without allocating anything per symbol.
+ * The last symbol may be shorter than the symbol size, check {@link #getLastSymbolLength}.
+ */
+public class SymbolReader
+{
+	private static final ByteBuffer EMPTY = ByteBuffer.allocate(0);
+
+	private ByteSource source;
+	private ByteBuffer buffer;
+	private int position;
+	private int limit;
+
+	private int symbolSize;
+	private int lastSymbolLength;
+
+	public SymbolReader(InputStream in, int symbolSize)
+	{
+		this(ByteSource.of(in), symbolSize);
+	}
+
+	public SymbolReader(ByteSource source, int symbolSize)
+	{
+		this.source = source;
+		reset(symbolSize);
+	}
+
+	/**
+	 * start over from the source's next buffer, after the source was pointed at a new input.
+	 * @param symbolSize size in bytes of the symbols to read from now on
+	 */
+	public void reset(int symbolSize)
+	{
+		this.symbolSize = symbolSize;
+		buffer = EMPTY;
+		position = 0;
+		limit = 0;
+	}
+
+	/**
+	 * @return {@code true} if and only if there are no more bytes to read
+	 * @throws IOException if reading the input failed
+	 */
+	public boolean isEmpty() throws IOException
+	{
+		if (position == limit && !source.isExhausted())
+		{
+			fillBuffer();
+		}
+
+		return position == limit;
+	}
+
+	/**
+	 * read the next symbol, or whatever is left of the input if it is shorter than the symbol size.
+	 * @return the bytes of the symbol packed into a {@code long}
+	 * @throws IOException if reading the input failed
+	 */
+	public long readSymbol() throws IOException
+	{
+		// a stream source may add fewer bytes than a symbol per refill
+		while (limit - position < symbolSize && !source.isExhausted())
+		{
+			fillBuffer();
+		}
+
+		int length = Math.min(symbolSize, limit - position);
+		long symbol = 0;
+
+		for (int i = 0; i < length; i++)
+		{
+			symbol = (symbol << 8) | (buffer.get(position++) & 0xff);
+		}
+
+		lastSymbolLength = length;
+		return symbol;
+	}
+
+	/**
+	 * @return number of bytes in the symbol last returned by {@link #readSymbol}
+	 */
+	public int getLastSymbolLength()
+	{
+		return lastSymbolLength;
+	}
+
+	public void close() throws IOException
+	{
+		source.close();
+	}
+
+	/**
+	 * get the next buffer from the source, starting with the unread bytes
+	 */
+	private void fillBuffer() throws IOException
+	{
+		ReadEvent event = new ReadEvent();
+		event.begin();
+
+		buffer = source.refill(position);
+
+		event.bytes = buffer.limit();
+		event.commit();
+		position = 0;
+		limit = buffer.limit();
+	}
+}